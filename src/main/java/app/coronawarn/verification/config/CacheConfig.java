@@ -0,0 +1,103 @@
+/*-
+ * ---license-start
+ * Corona-Warn-App / cwa-verification
+ * ---
+ * Copyright (C) 2020 - 2022 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package app.coronawarn.verification.config;
+
+import app.coronawarn.verification.service.InMemoryVerificationCache;
+import app.coronawarn.verification.service.RedisVerificationCache;
+import app.coronawarn.verification.service.VerificationCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * This class represents the config of the {@link VerificationCache}. The cache tier is selected by the property
+ * cache.type: "memory" keeps the entries within each instance, "redis" shares them between all instances.
+ */
+@Configuration
+public class CacheConfig {
+
+  private static final String CACHE_TYPE_PROPERTY = "cache.type";
+
+  /**
+   * The cache within the memory of the instance.
+   *
+   * @param verificationApplicationConfig the {@link VerificationApplicationConfig} with the cache config
+   * @param meterRegistry                 the {@link MeterRegistry} the cache metrics are registered at
+   * @return the memory cache
+   */
+  @Bean
+  @ConditionalOnProperty(name = CACHE_TYPE_PROPERTY, havingValue = "memory", matchIfMissing = true)
+  public VerificationCache inMemoryVerificationCache(VerificationApplicationConfig verificationApplicationConfig,
+                                                     MeterRegistry meterRegistry) {
+    return new InMemoryVerificationCache(verificationApplicationConfig.getCache().getMaxSize(), meterRegistry);
+  }
+
+  /**
+   * The connection factory of the redis cache. It is configured by the cache.redis properties instead of the
+   * spring.data.redis properties, because the redis auto configuration is excluded.
+   *
+   * @param verificationApplicationConfig the {@link VerificationApplicationConfig} with the redis config
+   * @return the connection factory
+   */
+  @Bean
+  @ConditionalOnProperty(name = CACHE_TYPE_PROPERTY, havingValue = "redis")
+  public LettuceConnectionFactory cacheRedisConnectionFactory(
+    VerificationApplicationConfig verificationApplicationConfig) {
+    VerificationApplicationConfig.Cache.Redis redis = verificationApplicationConfig.getCache().getRedis();
+    RedisStandaloneConfiguration server = new RedisStandaloneConfiguration(redis.getHost(), redis.getPort());
+    if (redis.getPassword() != null && !redis.getPassword().isEmpty()) {
+      server.setPassword(redis.getPassword());
+    }
+    LettuceClientConfiguration.LettuceClientConfigurationBuilder client = LettuceClientConfiguration.builder()
+      .commandTimeout(Duration.ofMillis(redis.getTimeout()));
+    if (redis.isSsl()) {
+      client.useSsl();
+    }
+    return new LettuceConnectionFactory(server, client.build());
+  }
+
+  /**
+   * The cache on the redis server shared by all instances.
+   *
+   * @param cacheRedisConnectionFactory   the connection factory of the redis cache
+   * @param objectMapper                  the {@link ObjectMapper} for the cached values
+   * @param verificationApplicationConfig the {@link VerificationApplicationConfig} with the redis config
+   * @param meterRegistry                 the {@link MeterRegistry} the cache metrics are registered at
+   * @return the redis cache
+   */
+  @Bean
+  @ConditionalOnProperty(name = CACHE_TYPE_PROPERTY, havingValue = "redis")
+  public VerificationCache redisVerificationCache(LettuceConnectionFactory cacheRedisConnectionFactory,
+                                                  ObjectMapper objectMapper,
+                                                  VerificationApplicationConfig verificationApplicationConfig,
+                                                  MeterRegistry meterRegistry) {
+    return new RedisVerificationCache(new StringRedisTemplate(cacheRedisConnectionFactory), objectMapper,
+      verificationApplicationConfig.getCache().getRedis().getKeyPrefix(), meterRegistry);
+  }
+}
@@ -0,0 +1,91 @@
+/*-
+ * ---license-start
+ * Corona-Warn-App / cwa-verification
+ * ---
+ * Copyright (C) 2020 - 2022 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package app.coronawarn.verification.config;
+
+import app.coronawarn.verification.controller.ExternalTanController;
+import app.coronawarn.verification.controller.ExternalTestStateController;
+import app.coronawarn.verification.controller.ExternalTokenController;
+import app.coronawarn.verification.service.FakeRequestService;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+/**
+ * A filter answering fake requests (cwa-fake: 1) of the external endpoints before they reach Spring MVC. The body is
+ * consumed but neither parsed nor validated, so fake requests never touch the database, and the pre-serialized fake
+ * response is written asynchronously after the fake delay. The path is decoded and stripped of path parameters like
+ * in Spring MVC, so the controllers of these routes never receive a fake request.
+ */
+@Component
+@Slf4j
+@Profile("external")
+@Order(RequestSizeLimitFilter.ORDER + 1)
+public class FakeRequestFilter extends OncePerRequestFilter {
+
+  private static final String FAKE_HEADER = "cwa-fake";
+  private static final String FAKE_HEADER_VALUE = "1";
+  private static final String PREFIX_API_VERSION = "/version/v1";
+
+  private final Map<String, Consumer<AsyncContext>> fakeResponses;
+
+  /**
+   * Constructor for the FakeRequestFilter that maps the external routes to their fake responses.
+   *
+   * @param fakeRequestService the {@link FakeRequestService} writing the fake responses
+   */
+  public FakeRequestFilter(@NonNull FakeRequestService fakeRequestService) {
+    this.fakeResponses = Map.of(
+      PREFIX_API_VERSION + ExternalTanController.TAN_ROUTE, fakeRequestService::writeTan,
+      PREFIX_API_VERSION + ExternalTokenController.REGISTRATION_TOKEN_ROUTE,
+      fakeRequestService::writeRegistrationToken,
+      PREFIX_API_VERSION + ExternalTestStateController.TESTRESULT_ROUTE, fakeRequestService::writeTestState);
+  }
+
+  @Override
+  protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                  @NonNull HttpServletResponse response, @NonNull FilterChain filterChain)
+    throws ServletException, IOException {
+    Consumer<AsyncContext> fakeResponse = FAKE_HEADER_VALUE.equals(request.getHeader(FAKE_HEADER))
+      && HttpMethod.POST.matches(request.getMethod())
+      ? fakeResponses.get(UrlPathHelper.defaultInstance.getPathWithinApplication(request))
+      : null;
+    if (fakeResponse == null) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+    StreamUtils.drain(request.getInputStream());
+    fakeResponse.accept(request.startAsync(request, response));
+  }
+}
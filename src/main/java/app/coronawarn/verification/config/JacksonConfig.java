@@ -0,0 +1,71 @@
+/*-
+ * ---license-start
+ * Corona-Warn-App / cwa-verification
+ * ---
+ * Copyright (C) 2020 - 2022 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package app.coronawarn.verification.config;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * This class represents the Jackson config for the small request and response models. The Blackbird module replaces
+ * the reflection based property access with generated lambdas and features which are not needed for these models
+ * are disabled.
+ */
+@Configuration
+public class JacksonConfig {
+
+  /**
+   * The Blackbird module, which is registered at the object mapper by Spring Boot.
+   *
+   * @return the Blackbird module
+   */
+  @Bean
+  public BlackbirdModule blackbirdModule() {
+    return new BlackbirdModule();
+  }
+
+  /**
+   * Disables the unused Jackson features for the object mapper of Spring Boot.
+   *
+   * @return the customizer of the object mapper builder
+   */
+  @Bean
+  public Jackson2ObjectMapperBuilderCustomizer jacksonFeatureCustomizer() {
+    return JacksonConfig::disableUnusedFeatures;
+  }
+
+  /**
+   * Disables the Jackson features, which the models do not need. None of the models has a collection property without
+   * a setter and the request bodies are small, so the source does not need to be kept for error locations.
+   *
+   * @param builder the object mapper builder
+   */
+  public static void disableUnusedFeatures(Jackson2ObjectMapperBuilder builder) {
+    builder.featuresToDisable(
+      MapperFeature.USE_GETTERS_AS_SETTERS,
+      JsonParser.Feature.INCLUDE_SOURCE_IN_LOCATION);
+  }
+}
@@ -20,10 +20,15 @@
 
 package app.coronawarn.verification.config;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import java.security.cert.CertificateEncodingException;
 import java.security.cert.X509Certificate;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -48,8 +53,12 @@
 @ConditionalOnProperty(name = "server.ssl.client-auth", havingValue = "need")
 public class MtlsSecurityConfig {
 
+  private static final int THUMBPRINT_CACHE_SIZE = 64;
+
   private final VerificationApplicationConfig config;
 
+  private volatile AllowedClientCertificates allowedClientCertificates = new AllowedClientCertificates(null, Set.of());
+
   @Bean
   protected HttpFirewall strictFirewall() {
     StrictHttpFirewall firewall = new StrictHttpFirewall();
@@ -81,10 +90,7 @@ public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
   private UserDetailsService userDetailsService() {
     return hash -> {
 
-      boolean allowed = Stream.of(config.getAllowedClientCertificates()
-          .split(","))
-        .map(String::trim)
-        .anyMatch(entry -> entry.equalsIgnoreCase(hash));
+      boolean allowed = getAllowedClientCertificates().contains(hash.toLowerCase(Locale.ROOT));
 
       if (allowed) {
         return new User(hash, "", Collections.emptyList());
@@ -95,14 +101,47 @@ private UserDetailsService userDetailsService() {
     };
   }
 
+  /**
+   * Returns the normalized set of the allowed client certificate hashes. The configured list is parsed once and parsed
+   * again only after the config value was replaced, e.g. by a refresh of the config.
+   */
+  private Set<String> getAllowedClientCertificates() {
+    String source = config.getAllowedClientCertificates();
+    AllowedClientCertificates current = allowedClientCertificates;
+    if (current.source() != source) {
+      current = new AllowedClientCertificates(source, source == null ? Set.of() : Stream.of(source.split(","))
+        .map(entry -> entry.trim().toLowerCase(Locale.ROOT))
+        .filter(entry -> !entry.isEmpty())
+        .collect(Collectors.toUnmodifiableSet()));
+      allowedClientCertificates = current;
+    }
+    return current.hashes();
+  }
+
+  private record AllowedClientCertificates(String source, Set<String> hashes) {
+  }
+
+  /**
+   * Caches the thumbprints by certificate. Certificates are equal only if their encodings are equal, so a cached
+   * thumbprint is never returned for a different certificate, even one with the issuer and serial number of an allowed
+   * one. Comparing the encodings is still cheaper than hashing them.
+   */
   private static class ThumbprintX509PrincipalExtractor implements X509PrincipalExtractor {
 
+    private final Cache<X509Certificate, String> thumbprints = Caffeine.newBuilder()
+      .maximumSize(THUMBPRINT_CACHE_SIZE)
+      .build();
+
     @Override
     public Object extractPrincipal(X509Certificate x509Certificate) {
-
+      String cached = thumbprints.getIfPresent(x509Certificate);
+      if (cached != null) {
+        return cached;
+      }
       try {
         String hash = DigestUtils.sha256Hex(x509Certificate.getEncoded());
         log.debug("Accessed by Subject {} Hash {}", x509Certificate.getSubjectX500Principal().getName(), hash);
+        thumbprints.put(x509Certificate, hash);
         return hash;
       } catch (CertificateEncodingException e) {
         log.error("Failed to extract bytes from certificate");
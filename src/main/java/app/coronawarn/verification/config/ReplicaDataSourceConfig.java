@@ -0,0 +1,92 @@
+/*-
+ * ---license-start
+ * Corona-Warn-App / cwa-verification
+ * ---
+ * Copyright (C) 2020 - 2022 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package app.coronawarn.verification.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * This class represents the data source config for a read replica. If the replica is enabled, the primary database
+ * configured by the spring.datasource properties and the replica are pooled separately and the data source of the
+ * application routes the connections between both pools.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.replica.enabled", havingValue = "true")
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class ReplicaDataSourceConfig {
+
+  /**
+   * The pool of the primary database. Like the pool Spring Boot creates without a replica, it is configured by the
+   * spring.datasource and spring.datasource.hikari properties.
+   *
+   * @param dataSourceProperties the properties of the primary database
+   * @param meterRegistry        the {@link MeterRegistry} the pool metrics are registered at
+   * @return the pool of the primary database
+   */
+  @Bean
+  @ConfigurationProperties("spring.datasource.hikari")
+  public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties, MeterRegistry meterRegistry) {
+    HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder()
+      .type(HikariDataSource.class)
+      .build();
+    primary.setPoolName("primary");
+    primary.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+    return primary;
+  }
+
+  /**
+   * The data source routing the connections to the primary database or to the read replica.
+   *
+   * @param primaryDataSource             the pool of the primary database
+   * @param verificationApplicationConfig the {@link VerificationApplicationConfig} with the replica config
+   * @param meterRegistry                 the {@link MeterRegistry} the pool metrics are registered at
+   * @return the routing data source
+   */
+  @Bean
+  @Primary
+  public ReplicaRoutingDataSource dataSource(@Qualifier("primaryDataSource") HikariDataSource primaryDataSource,
+                                             VerificationApplicationConfig verificationApplicationConfig,
+                                             MeterRegistry meterRegistry) {
+    VerificationApplicationConfig.Replica replicaConfig = verificationApplicationConfig.getDatasource().getReplica();
+    HikariDataSource replica = DataSourceBuilder.create()
+      .type(HikariDataSource.class)
+      .driverClassName(replicaConfig.getDriverClassName())
+      .url(replicaConfig.getUrl())
+      .username(replicaConfig.getUsername())
+      .password(replicaConfig.getPassword())
+      .build();
+    replica.setPoolName("replica");
+    replica.setReadOnly(true);
+    replica.setMaximumPoolSize(replicaConfig.getMaximumPoolSize());
+    replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+    return new ReplicaRoutingDataSource(primaryDataSource, replica, replicaConfig, meterRegistry);
+  }
+}
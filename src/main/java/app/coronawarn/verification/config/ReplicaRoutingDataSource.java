@@ -0,0 +1,187 @@
+/*-
+ * ---license-start
+ * Corona-Warn-App / cwa-verification
+ * ---
+ * Copyright (C) 2020 - 2022 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package app.coronawarn.verification.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * A data source routing the connections to the primary database or to a read replica. Only lookups which are
+ * explicitly executed by {@link #readFromReplica(Supplier)} are routed to the replica, and only while the replication
+ * lag of the replica is below the configured maximum. All other connections, including those of transactions which
+ * are only marked as read only, are routed to the primary.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+  private static final String CONNECTIONS_METRIC = "verification.datasource.connections";
+  private static final String LAG_METRIC = "verification.datasource.replica.lag";
+  private static final ThreadLocal<Boolean> REPLICA_READ = new ThreadLocal<>();
+
+  private enum Target {
+    PRIMARY, REPLICA
+  }
+
+  private final DataSource primary;
+  private final DataSource replica;
+  private final VerificationApplicationConfig.Replica replicaConfig;
+  private final Counter primaryCounter;
+  private final Counter replicaCounter;
+  private final ScheduledExecutorService lagChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "replica-lag-check");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private volatile boolean replicaAvailable;
+  private volatile double replicaLag = Double.NaN;
+
+  /**
+   * Constructor for the ReplicaRoutingDataSource.
+   *
+   * @param primary       the data source of the primary database
+   * @param replica       the data source of the read replica
+   * @param replicaConfig the config of the read replica
+   * @param meterRegistry the {@link MeterRegistry} the routing metrics are registered at
+   */
+  public ReplicaRoutingDataSource(DataSource primary, DataSource replica,
+                                  VerificationApplicationConfig.Replica replicaConfig, MeterRegistry meterRegistry) {
+    this.primary = primary;
+    this.replica = replica;
+    this.replicaConfig = replicaConfig;
+    setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+    setDefaultTargetDataSource(primary);
+    this.primaryCounter = connectionCounter(meterRegistry, "primary");
+    this.replicaCounter = connectionCounter(meterRegistry, "replica");
+    Gauge.builder(LAG_METRIC, this, dataSource -> dataSource.replicaLag)
+      .description("Replication lag of the read replica")
+      .baseUnit("seconds")
+      .register(meterRegistry);
+  }
+
+  private static Counter connectionCounter(MeterRegistry meterRegistry, String target) {
+    return Counter.builder(CONNECTIONS_METRIC)
+      .description("Number of connections obtained per database")
+      .tag("target", target)
+      .register(meterRegistry);
+  }
+
+  /**
+   * This method executes a lookup on the read replica. The lookup is executed on the primary if the replica is not
+   * available or the lookup is part of a transaction, which is already bound to a connection.
+   *
+   * @param lookup the lookup
+   * @param <T>    the result type of the lookup
+   * @return the result of the lookup
+   */
+  public <T> T readFromReplica(Supplier<T> lookup) {
+    if (REPLICA_READ.get() != null) {
+      return lookup.get();
+    }
+    REPLICA_READ.set(Boolean.TRUE);
+    try {
+      return lookup.get();
+    } finally {
+      REPLICA_READ.remove();
+    }
+  }
+
+  /**
+   * Returns whether lookups are currently routed to the read replica.
+   *
+   * @return true if the replication lag is below the configured maximum
+   */
+  public boolean isReplicaAvailable() {
+    return replicaAvailable;
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    if (REPLICA_READ.get() != null && replicaAvailable) {
+      replicaCounter.increment();
+      return Target.REPLICA;
+    }
+    primaryCounter.increment();
+    return Target.PRIMARY;
+  }
+
+  @Override
+  public void afterPropertiesSet() {
+    super.afterPropertiesSet();
+    checkReplicaLag();
+    long rate = replicaConfig.getLagCheckRate();
+    lagChecker.scheduleAtFixedRate(this::checkReplicaLag, rate, rate, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * This method checks the replication lag of the read replica. The replica is used only while the lag is below the
+   * configured maximum, the primary is used if the lag is too large or cannot be determined, which includes a lag query
+   * returning no row or NULL.
+   */
+  public void checkReplicaLag() {
+    double lag;
+    try (Connection connection = replica.getConnection();
+         Statement statement = connection.createStatement();
+         ResultSet resultSet = statement.executeQuery(replicaConfig.getLagQuery())) {
+      lag = Double.NaN;
+      if (resultSet.next()) {
+        double value = resultSet.getDouble(1);
+        lag = resultSet.wasNull() ? Double.NaN : value;
+      }
+    } catch (SQLException e) {
+      log.warn("The replication lag of the read replica could not be determined.", e);
+      lag = Double.NaN;
+    }
+    boolean available = lag <= replicaConfig.getMaxLag();
+    if (available != replicaAvailable) {
+      log.info("The read replica is {} with a replication lag of {} seconds.", available ? "used" : "not used", lag);
+    }
+    replicaLag = lag;
+    replicaAvailable = available;
+  }
+
+  @Override
+  public void destroy() throws Exception {
+    lagChecker.shutdownNow();
+    close(replica);
+    close(primary);
+  }
+
+  private static void close(DataSource dataSource) throws Exception {
+    if (dataSource instanceof AutoCloseable closeable) {
+      closeable.close();
+    }
+  }
+}
@@ -0,0 +1,57 @@
+/*-
+ * ---license-start
+ * Corona-Warn-App / cwa-verification
+ * ---
+ * Copyright (C) 2020 - 2022 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package app.coronawarn.verification.config;
+
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.lang.NonNull;
+
+/**
+ * This class represents the config adding the time spent in the repositories to the metrics of the current request.
+ */
+@Configuration
+public class RepositoryMetricsConfig {
+
+  /**
+   * Registers an invocation listener at every repository, which adds the duration of the repository method to the
+   * database phase of the current request.
+   *
+   * @return the bean post processor of the repository factory beans
+   */
+  @Bean
+  public static BeanPostProcessor repositoryMetricsBeanPostProcessor() {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessBeforeInitialization(@NonNull Object bean, @NonNull String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> repositoryFactoryBean) {
+          repositoryFactoryBean.addRepositoryFactoryCustomizer(factory -> factory.addInvocationListener(
+            invocation -> RequestMetrics.addPhaseTime(RequestMetrics.Phase.DB,
+              invocation.getDuration(TimeUnit.NANOSECONDS))));
+        }
+        return bean;
+      }
+    };
+  }
+}
@@ -0,0 +1,156 @@
+/*-
+ * ---license-start
+ * Corona-Warn-App / cwa-verification
+ * ---
+ * Copyright (C) 2020 - 2022 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package app.coronawarn.verification.config;
+
+import java.util.Locale;
+import java.util.function.Supplier;
+import lombok.Getter;
+
+/**
+ * This class represents the metrics of the request processed by the current thread. The request is started and
+ * finished by the {@link RequestMetricsFilter}, the controllers tag it with the key type and the source of trust, and
+ * the services add the time spent in the database, for hashing and at the upstream services. Outside of a request all
+ * methods do nothing.
+ */
+public final class RequestMetrics {
+
+  /**
+   * The tag value of requests without a key type or source of trust.
+   */
+  public static final String NONE = "none";
+
+  private static final ThreadLocal<RequestMetrics> CURRENT = new ThreadLocal<>();
+
+  @Getter
+  private final String route;
+  @Getter
+  private final boolean fake;
+  private final long[] phaseNanos = new long[Phase.values().length];
+  @Getter
+  private String keyType = NONE;
+  @Getter
+  private String sourceOfTrust = NONE;
+
+  private RequestMetrics(String route, boolean fake) {
+    this.route = route;
+    this.fake = fake;
+  }
+
+  /**
+   * The phases of a request, which are measured separately.
+   */
+  public enum Phase {
+    DB, HASHING, UPSTREAM;
+
+    /**
+     * The tag value of the phase.
+     *
+     * @return the lower case name of the phase
+     */
+    public String tagValue() {
+      return name().toLowerCase(Locale.ROOT);
+    }
+  }
+
+  /**
+   * This method starts the metrics of a request and binds them to the current thread.
+   *
+   * @param route the route of the request
+   * @param fake  whether the request is a fake request
+   * @return the metrics of the request
+   */
+  public static RequestMetrics start(String route, boolean fake) {
+    RequestMetrics metrics = new RequestMetrics(route, fake);
+    CURRENT.set(metrics);
+    return metrics;
+  }
+
+  /**
+   * This method unbinds the metrics of the request from the current thread.
+   */
+  public static void detach() {
+    CURRENT.remove();
+  }
+
+  /**
+   * This method tags the current request with the key type.
+   *
+   * @param keyType the key type of the request
+   */
+  public static void tagKeyType(Enum<?> keyType) {
+    RequestMetrics metrics = CURRENT.get();
+    if (metrics != null && keyType != null) {
+      metrics.keyType = keyType.name();
+    }
+  }
+
+  /**
+   * This method tags the current request with the source of trust.
+   *
+   * @param sourceOfTrust the source of trust of the request
+   */
+  public static void tagSourceOfTrust(Enum<?> sourceOfTrust) {
+    RequestMetrics metrics = CURRENT.get();
+    if (metrics != null && sourceOfTrust != null) {
+      metrics.sourceOfTrust = sourceOfTrust.name();
+    }
+  }
+
+  /**
+   * This method adds the time spent in a phase to the current request.
+   *
+   * @param phase the phase
+   * @param nanos the time spent in nanoseconds
+   */
+  public static void addPhaseTime(Phase phase, long nanos) {
+    RequestMetrics metrics = CURRENT.get();
+    if (metrics != null) {
+      metrics.phaseNanos[phase.ordinal()] += nanos;
+    }
+  }
+
+  /**
+   * This method calls the supplier and adds its execution time to the phase of the current request.
+   *
+   * @param phase    the phase
+   * @param supplier the supplier
+   * @param <T>      the result type of the supplier
+   * @return the result of the supplier
+   */
+  public static <T> T recordPhase(Phase phase, Supplier<T> supplier) {
+    long start = System.nanoTime();
+    try {
+      return supplier.get();
+    } finally {
+      addPhaseTime(phase, System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * This method returns the time spent in a phase of the request.
+   *
+   * @param phase the phase
+   * @return the time spent in nanoseconds
+   */
+  public long getPhaseNanos(Phase phase) {
+    return phaseNanos[phase.ordinal()];
+  }
+}
@@ -0,0 +1,207 @@
+/*-
+ * ---license-start
+ * Corona-Warn-App / cwa-verification
+ * ---
+ * Copyright (C) 2020 - 2022 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package app.coronawarn.verification.config;
+
+import app.coronawarn.verification.controller.ExternalTanController;
+import app.coronawarn.verification.controller.ExternalTestStateController;
+import app.coronawarn.verification.controller.ExternalTokenController;
+import app.coronawarn.verification.controller.InternalTanController;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+/**
+ * A filter recording a timer per route, split into fake and real requests, their outcome, key type and source of
+ * trust. For real requests the time spent in the database, for hashing and at the upstream services is recorded per
+ * route. All timers publish histograms, so percentiles can be aggregated across instances, and are registered once
+ * per combination of tags. The request timers also publish the percentiles shown by the {@code fakedelay} endpoint.
+ * Routes are resolved like in the {@link FakeRequestFilter}, so the path is decoded and stripped of path
+ * parameters. The filter is ordered before the security filters, so rejected client certificates are
+ * recorded as well.
+ */
+@Component
+@Order(RequestMetricsFilter.ORDER)
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+  /**
+   * The order of this filter.
+   */
+  public static final int ORDER = Ordered.HIGHEST_PRECEDENCE + 10;
+
+  private static final String REQUEST_METRIC = "verification.request";
+  private static final String PHASE_METRIC = "verification.request.phase";
+  private static final String PREFIX_API_VERSION = "/version/v1";
+  private static final String FAKE_HEADER = "cwa-fake";
+  private static final String FAKE_HEADER_VALUE = "1";
+  private static final Set<String> ROUTES = Set.of(
+    ExternalTanController.TAN_ROUTE,
+    ExternalTokenController.REGISTRATION_TOKEN_ROUTE,
+    ExternalTestStateController.TESTRESULT_ROUTE,
+    InternalTanController.TAN_VERIFY_ROUTE,
+    InternalTanController.TAN_VERIFY_BULK_ROUTE,
+    InternalTanController.TELE_TAN_ROUTE,
+    InternalTanController.TELE_TAN_BULK_ROUTE);
+
+  private final MeterRegistry meterRegistry;
+  private final Map<RequestTimerKey, Timer> requestTimers = new ConcurrentHashMap<>();
+  private final Map<PhaseTimerKey, Timer> phaseTimers = new ConcurrentHashMap<>();
+
+  /**
+   * Constructor for the RequestMetricsFilter.
+   *
+   * @param meterRegistry the {@link MeterRegistry} the timers are registered at
+   */
+  public RequestMetricsFilter(@NonNull MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+    return route(request) == null;
+  }
+
+  @Override
+  protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                  @NonNull HttpServletResponse response, @NonNull FilterChain filterChain)
+    throws ServletException, IOException {
+    RequestMetrics metrics = RequestMetrics.start(route(request),
+      FAKE_HEADER_VALUE.equals(request.getHeader(FAKE_HEADER)));
+    long start = System.nanoTime();
+    boolean failed = true;
+    try {
+      filterChain.doFilter(request, response);
+      failed = false;
+    } finally {
+      RequestMetrics.detach();
+      if (failed) {
+        record(metrics, start, "error");
+      } else if (request.isAsyncStarted()) {
+        request.getAsyncContext().addListener(new AsyncListener() {
+          @Override
+          public void onComplete(AsyncEvent event) {
+            record(metrics, start, outcome(response.getStatus()));
+          }
+
+          @Override
+          public void onTimeout(AsyncEvent event) {
+            // the request is completed after the timeout
+          }
+
+          @Override
+          public void onError(AsyncEvent event) {
+            // the request is completed after the error
+          }
+
+          @Override
+          public void onStartAsync(AsyncEvent event) {
+            // the listener stays registered for the whole request
+          }
+        });
+      } else {
+        record(metrics, start, outcome(response.getStatus()));
+      }
+    }
+  }
+
+  private void record(RequestMetrics metrics, long start, String outcome) {
+    RequestTimerKey requestTimerKey = new RequestTimerKey(metrics.getRoute(), metrics.isFake(), outcome,
+      metrics.getKeyType(), metrics.getSourceOfTrust());
+    requestTimers.computeIfAbsent(requestTimerKey, this::requestTimer)
+      .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    if (metrics.isFake()) {
+      return;
+    }
+    for (RequestMetrics.Phase phase : RequestMetrics.Phase.values()) {
+      long nanos = metrics.getPhaseNanos(phase);
+      if (nanos > 0) {
+        phaseTimers.computeIfAbsent(new PhaseTimerKey(metrics.getRoute(), phase), this::phaseTimer)
+          .record(nanos, TimeUnit.NANOSECONDS);
+      }
+    }
+  }
+
+  private Timer requestTimer(RequestTimerKey key) {
+    return Timer.builder(REQUEST_METRIC)
+      .description("Duration of the requests per route")
+      .tag("route", key.route())
+      .tag("fake", String.valueOf(key.fake()))
+      .tag("outcome", key.outcome())
+      .tag("keytype", key.keyType())
+      .tag("sourceoftrust", key.sourceOfTrust())
+      .publishPercentiles(0.5, 0.9, 0.99)
+      .publishPercentileHistogram()
+      .register(meterRegistry);
+  }
+
+  private Timer phaseTimer(PhaseTimerKey key) {
+    return Timer.builder(PHASE_METRIC)
+      .description("Time spent in the database, for hashing and at upstream services per request")
+      .tag("route", key.route())
+      .tag("phase", key.phase().tagValue())
+      .publishPercentileHistogram()
+      .register(meterRegistry);
+  }
+
+  private static String route(HttpServletRequest request) {
+    String path = UrlPathHelper.defaultInstance.getPathWithinApplication(request);
+    if (!path.startsWith(PREFIX_API_VERSION)) {
+      return null;
+    }
+    String route = path.substring(PREFIX_API_VERSION.length());
+    return ROUTES.contains(route) ? route : null;
+  }
+
+  private static String outcome(int status) {
+    return switch (status) {
+      case 200 -> "ok";
+      case 201 -> "created";
+      case 400 -> "bad_request";
+      case 401 -> "unauthorized";
+      case 403 -> "forbidden";
+      case 404 -> "not_found";
+      case 406 -> "too_large";
+      case 429 -> "rate_limited";
+      default -> status >= 500 ? "server_error" : "other";
+    };
+  }
+
+  private record RequestTimerKey(String route, boolean fake, String outcome, String keyType, String sourceOfTrust) {
+  }
+
+  private record PhaseTimerKey(String route, RequestMetrics.Phase phase) {
+  }
+}
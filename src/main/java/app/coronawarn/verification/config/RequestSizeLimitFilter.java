@@ -20,41 +20,111 @@
 
 package app.coronawarn.verification.config;
 
+import app.coronawarn.verification.exception.RequestSizeLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
 import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
 import jakarta.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
 import java.io.IOException;
-import lombok.RequiredArgsConstructor;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.HttpHeaders;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 /**
- * A filter to avoid requests with a large content and chunked requests.
+ * A filter to avoid requests with a large content and chunked requests. Requests without a body are not filtered,
+ * their size is limited by the Tomcat connector (see {@link TomcatConfig}). The body of the filtered requests is
+ * counted while it is read, so a body which is larger than its announced length is rejected as soon as the limit is
+ * exceeded instead of being read completely.
  */
 @Component
 @Slf4j
-@RequiredArgsConstructor
+@Order(RequestSizeLimitFilter.ORDER)
 public class RequestSizeLimitFilter extends OncePerRequestFilter {
 
+  /**
+   * The order of this filter, filters which read the request body have to be ordered after it.
+   */
+  public static final int ORDER = Ordered.LOWEST_PRECEDENCE - 10;
+
+  private static final String REQUEST_REJECTED_METRIC = "verification.request.rejected";
+  private static final String REASON_TAG = "reason";
+
   private final VerificationApplicationConfig verificationApplicationConfig;
 
+  private final Counter contentLengthRejectedCounter;
+  private final Counter chunkedRejectedCounter;
+  private final Counter bodySizeRejectedCounter;
+
+  /**
+   * Constructor for the RequestSizeLimitFilter that registers the counters of the rejected requests.
+   *
+   * @param verificationApplicationConfig the {@link VerificationApplicationConfig} with the request size limit
+   * @param meterRegistry                 the {@link MeterRegistry} the counters are registered at
+   */
+  public RequestSizeLimitFilter(@NonNull VerificationApplicationConfig verificationApplicationConfig,
+                                @NonNull MeterRegistry meterRegistry) {
+    this.verificationApplicationConfig = verificationApplicationConfig;
+    this.contentLengthRejectedCounter = rejectedCounter(meterRegistry, "content-length");
+    this.chunkedRejectedCounter = rejectedCounter(meterRegistry, "chunked");
+    this.bodySizeRejectedCounter = rejectedCounter(meterRegistry, "body-size");
+  }
+
+  private static Counter rejectedCounter(MeterRegistry meterRegistry, String reason) {
+    return Counter.builder(REQUEST_REJECTED_METRIC)
+      .description("Number of requests rejected by the request size limit")
+      .tag(REASON_TAG, reason)
+      .register(meterRegistry);
+  }
+
+  @Override
+  protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+    String method = request.getMethod();
+    return HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method) || HttpMethod.OPTIONS.matches(method);
+  }
+
   @Override
-  protected void doFilterInternal(HttpServletRequest request,
+  protected void doFilterInternal(@NonNull HttpServletRequest request,
                                   @NonNull HttpServletResponse response, @NonNull FilterChain filterChain)
     throws ServletException, IOException {
     long maxPostSize = verificationApplicationConfig.getRequest().getSizelimit();
-    if (request.getContentLengthLong() > maxPostSize || isChunkedRequest(request)) {
-      log.warn("The request size is too large or the request was sent via chunks.");
+    if (request.getContentLengthLong() > maxPostSize) {
+      contentLengthRejectedCounter.increment();
+      log.warn("The request size is too large.");
       response.setStatus(HttpStatus.NOT_ACCEPTABLE.value());
       return;
     }
-    filterChain.doFilter(request, response);
+    if (isChunkedRequest(request)) {
+      chunkedRejectedCounter.increment();
+      log.warn("The request was sent via chunks.");
+      response.setStatus(HttpStatus.NOT_ACCEPTABLE.value());
+      return;
+    }
+    SizeLimitedRequest sizeLimitedRequest = new SizeLimitedRequest(request, maxPostSize);
+    try {
+      filterChain.doFilter(sizeLimitedRequest, response);
+    } catch (RequestSizeLimitExceededException e) {
+      // the limit was exceeded by a filter reading the body, requests reaching Spring MVC are handled there
+      if (response.isCommitted()) {
+        throw e;
+      }
+      response.setStatus(HttpStatus.NOT_ACCEPTABLE.value());
+    }
   }
 
   private boolean isChunkedRequest(HttpServletRequest request) {
@@ -63,4 +133,102 @@ private boolean isChunkedRequest(HttpServletRequest request) {
     return !StringUtils.isEmpty(header) && header.equalsIgnoreCase("chunked");
   }
 
+  /**
+   * A request wrapper counting the bytes read from the body, which fails as soon as more bytes than the request size
+   * limit are read.
+   */
+  private final class SizeLimitedRequest extends HttpServletRequestWrapper {
+
+    private final long maxPostSize;
+    private long bytesRead;
+    private boolean limitExceeded;
+    private ServletInputStream inputStream;
+    private BufferedReader reader;
+
+    private SizeLimitedRequest(HttpServletRequest request, long maxPostSize) {
+      super(request);
+      this.maxPostSize = maxPostSize;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() throws IOException {
+      if (inputStream == null) {
+        inputStream = new SizeLimitedInputStream(super.getInputStream());
+      }
+      return inputStream;
+    }
+
+    @Override
+    public BufferedReader getReader() throws IOException {
+      if (reader == null) {
+        String encoding = getCharacterEncoding();
+        Charset charset = encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+        reader = new BufferedReader(new InputStreamReader(getInputStream(), charset));
+      }
+      return reader;
+    }
+
+    private void count(long read) throws RequestSizeLimitExceededException {
+      if (read <= 0) {
+        return;
+      }
+      bytesRead += read;
+      if (bytesRead > maxPostSize) {
+        if (!limitExceeded) {
+          limitExceeded = true;
+          bodySizeRejectedCounter.increment();
+          log.warn("The request body is larger than its announced size.");
+        }
+        throw new RequestSizeLimitExceededException("The request body is too large.");
+      }
+    }
+
+    /**
+     * The input stream of the body, which counts the read bytes.
+     */
+    private final class SizeLimitedInputStream extends ServletInputStream {
+
+      private final ServletInputStream delegate;
+
+      private SizeLimitedInputStream(ServletInputStream delegate) {
+        this.delegate = delegate;
+      }
+
+      @Override
+      public int read() throws IOException {
+        int read = delegate.read();
+        if (read >= 0) {
+          count(1);
+        }
+        return read;
+      }
+
+      @Override
+      public int read(@NonNull byte[] b, int off, int len) throws IOException {
+        int read = delegate.read(b, off, len);
+        count(read);
+        return read;
+      }
+
+      @Override
+      public boolean isFinished() {
+        return delegate.isFinished();
+      }
+
+      @Override
+      public boolean isReady() {
+        return delegate.isReady();
+      }
+
+      @Override
+      public void setReadListener(ReadListener readListener) {
+        delegate.setReadListener(readListener);
+      }
+
+      @Override
+      public void close() throws IOException {
+        delegate.close();
+      }
+    }
+  }
 }
@@ -0,0 +1,111 @@
+/*-
+ * ---license-start
+ * Corona-Warn-App / cwa-verification
+ * ---
+ * Copyright (C) 2020 - 2022 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package app.coronawarn.verification.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletConnection;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * A filter counting the new secure connections and the requests on reused connections. A connection is identified by
+ * the connection id of the servlet container, which is unique for the lifetime of the server, so a new connection from
+ * the same address and port is not mistaken for a reused one. The first request of a connection counts the
+ * connection. Every new connection starts with a handshake, but whether its session was resumed is not exposed to the
+ * servlet request, so full and resumed handshakes are not counted separately.
+ */
+@Component
+@Order(TlsConnectionMetricsFilter.ORDER)
+public class TlsConnectionMetricsFilter extends OncePerRequestFilter {
+
+  /**
+   * The order of this filter.
+   */
+  public static final int ORDER = Ordered.HIGHEST_PRECEDENCE + 5;
+
+  private static final String CONNECTION_METRIC = "verification.tls.connections";
+  private static final String REQUEST_METRIC = "verification.tls.requests";
+
+  private final Cache<String, Boolean> connections;
+
+  private final Counter connectionCounter;
+  private final Counter newConnectionRequestCounter;
+  private final Counter reusedConnectionRequestCounter;
+
+  /**
+   * Constructor for the TlsConnectionMetricsFilter that registers the counters of the connections and requests.
+   *
+   * @param verificationApplicationConfig the {@link VerificationApplicationConfig} with the number and the idle
+   *                                      timeout of the tracked connections
+   * @param meterRegistry                 the {@link MeterRegistry} the counters are registered at
+   */
+  public TlsConnectionMetricsFilter(@NonNull VerificationApplicationConfig verificationApplicationConfig,
+                                    @NonNull MeterRegistry meterRegistry) {
+    VerificationApplicationConfig.Tls tls = verificationApplicationConfig.getTls();
+    this.connections = Caffeine.newBuilder()
+      .maximumSize(tls.getTrackedConnections())
+      .expireAfterAccess(Duration.ofSeconds(tls.getTrackedConnectionTimeout()))
+      .build();
+    this.connectionCounter = Counter.builder(CONNECTION_METRIC)
+      .description("Number of new secure connections")
+      .register(meterRegistry);
+    this.newConnectionRequestCounter = requestCounter(meterRegistry, "new");
+    this.reusedConnectionRequestCounter = requestCounter(meterRegistry, "reused");
+  }
+
+  private static Counter requestCounter(MeterRegistry meterRegistry, String connection) {
+    return Counter.builder(REQUEST_METRIC)
+      .description("Number of secure requests by connection")
+      .tag("connection", connection)
+      .register(meterRegistry);
+  }
+
+  @Override
+  protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+    return !request.isSecure() || request.getServletConnection() == null;
+  }
+
+  @Override
+  protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                  @NonNull HttpServletResponse response, @NonNull FilterChain filterChain)
+    throws ServletException, IOException {
+    ServletConnection connection = request.getServletConnection();
+    if (connections.asMap().putIfAbsent(connection.getConnectionId(), Boolean.TRUE) == null) {
+      connectionCounter.increment();
+      newConnectionRequestCounter.increment();
+    } else {
+      reusedConnectionRequestCounter.increment();
+    }
+    filterChain.doFilter(request, response);
+  }
+}
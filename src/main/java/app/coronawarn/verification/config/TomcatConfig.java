@@ -0,0 +1,81 @@
+/*-
+ * ---license-start
+ * Corona-Warn-App / cwa-verification
+ * ---
+ * Copyright (C) 2020 - 2022 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package app.coronawarn.verification.config;
+
+import lombok.RequiredArgsConstructor;
+import org.apache.coyote.http11.AbstractHttp11Protocol;
+import org.apache.tomcat.util.net.SSLHostConfig;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.lang.NonNull;
+
+/**
+ * This class represents the Tomcat connector config. The request size limit is enforced by the connector as well, so
+ * oversized bodies are neither parsed nor swallowed by Tomcat and uploads which stall are closed after the upload
+ * timeout instead of keeping a worker thread busy. The TLS session cache is sized, so clients with short-lived
+ * connections can resume their sessions instead of doing a full mutual TLS handshake.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class TomcatConfig {
+
+  @NonNull
+  private final VerificationApplicationConfig verificationApplicationConfig;
+
+  /**
+   * Applies the request size limit and the upload timeout to the connectors of the embedded Tomcat.
+   *
+   * @return the customizer of the Tomcat web server factory
+   */
+  @Bean
+  public WebServerFactoryCustomizer<TomcatServletWebServerFactory> requestSizeLimitCustomizer() {
+    VerificationApplicationConfig.Request request = verificationApplicationConfig.getRequest();
+    int sizeLimit = (int) Math.min(request.getSizelimit(), Integer.MAX_VALUE);
+    return factory -> factory.addConnectorCustomizers(connector -> {
+      connector.setMaxPostSize(sizeLimit);
+      connector.setMaxSavePostSize(sizeLimit);
+      if (connector.getProtocolHandler() instanceof AbstractHttp11Protocol<?> protocol) {
+        protocol.setMaxSwallowSize(sizeLimit);
+        protocol.setDisableUploadTimeout(false);
+        protocol.setConnectionUploadTimeout((int) request.getUploadTimeout());
+      }
+    });
+  }
+
+  /**
+   * Applies the TLS session cache size and timeout to the TLS host configs of the embedded Tomcat.
+   *
+   * @return the customizer of the Tomcat web server factory
+   */
+  @Bean
+  public WebServerFactoryCustomizer<TomcatServletWebServerFactory> tlsSessionCustomizer() {
+    VerificationApplicationConfig.Tls tls = verificationApplicationConfig.getTls();
+    return factory -> factory.addConnectorCustomizers(connector -> {
+      for (SSLHostConfig sslHostConfig : connector.findSslHostConfigs()) {
+        sslHostConfig.setSessionCacheSize(tls.getSessionCacheSize());
+        sslHostConfig.setSessionTimeout(tls.getSessionTimeout());
+      }
+    });
+  }
+}
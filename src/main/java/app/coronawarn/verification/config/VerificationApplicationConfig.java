@@ -42,6 +42,11 @@ public class VerificationApplicationConfig {
   private Entities entities = new Entities();
   private Jwt jwt = new Jwt();
   private Request request = new Request();
+  private Entropy entropy = new Entropy();
+  private Padding padding = new Padding();
+  private Tls tls = new Tls();
+  private Datasource datasource = new Datasource();
+  private Cache cache = new Cache();
 
   private boolean disableDobHashCheckForExternalTestResult;
 
@@ -64,6 +69,7 @@ public static class Tele {
 
       private Valid valid = new Valid();
       private RateLimiting rateLimiting = new RateLimiting();
+      private Bulk bulk = new Bulk();
 
       /**
        * Configure the TeleValid with build property values and return the configured parameters.
@@ -93,6 +99,17 @@ public static class RateLimiting {
         // Threshold in percent for a warning in log stream
         private int thresholdInPercent = 80;
       }
+
+      /**
+       * Configure the bulk creation of teletans.
+       */
+      @Getter
+      @Setter
+      public static class Bulk {
+
+        // Number of teletans that are allowed to create with one request
+        private int maxCount = 100;
+      }
     }
 
     /**
@@ -118,6 +135,50 @@ public static class AppSession {
     int tancountermax = 1;
   }
 
+  /**
+   * Configure the cache tier shared by the app sessions and the test results.
+   */
+  @Getter
+  @Setter
+  public static class Cache {
+
+    // Implementation of the cache tier, either memory or redis
+    private String type = "memory";
+    // Maximum number of entries of the memory cache
+    private int maxSize = 10000;
+    private Region appsession = new Region();
+    private Region testresult = new Region();
+    private Redis redis = new Redis();
+
+    /**
+     * Configure a region of the cache.
+     */
+    @Getter
+    @Setter
+    public static class Region {
+
+      private boolean enabled = false;
+      // Number of seconds an entry remains cached
+      private int ttl = 60;
+    }
+
+    /**
+     * Configure the connection to the redis cache.
+     */
+    @Getter
+    @Setter
+    public static class Redis {
+
+      private String host = "localhost";
+      private int port = 6379;
+      private String password;
+      private boolean ssl = false;
+      // Number of milliseconds until a redis command times out
+      private long timeout = 500;
+      private String keyPrefix = "cwa-verification:";
+    }
+  }
+
   /**
    * Configure the Entities with build property values and return the configured parameters.
    */
@@ -160,5 +221,80 @@ public static class Jwt {
   public static class Request {
 
     private long sizelimit = 10000;
+    private long uploadTimeout = 5000;
+  }
+
+  /**
+   * Configure the entropy source with build property values and return the configured parameters.
+   */
+  @Getter
+  @Setter
+  public static class Entropy {
+
+    // SecureRandom algorithm of the per thread random number generators
+    private String algorithm = "DRBG";
+    // Number of random bytes buffered per thread
+    private int poolSize = 512;
+  }
+
+  /**
+   * Configure the response padding with build property values and return the configured parameters.
+   */
+  @Getter
+  @Setter
+  public static class Padding {
+
+    // Number of random characters the paddings are taken from
+    private int bufferLength = 4096;
+    // Number of milliseconds between refreshes of the padding buffer
+    private long refreshRate = 60000;
+  }
+
+  /**
+   * Configure the TLS session resumption with build property values and return the configured parameters.
+   */
+  @Getter
+  @Setter
+  public static class Tls {
+
+    // Number of TLS sessions cached by the server for resumption
+    private int sessionCacheSize = 20480;
+    // Number of seconds a TLS session can be resumed
+    private int sessionTimeout = 3600;
+    // Number of open connections remembered to detect reused connections
+    private int trackedConnections = 10000;
+    // Number of seconds an idle connection is remembered, at least the keep alive timeout of the connector
+    private int trackedConnectionTimeout = 60;
+  }
+
+  /**
+   * Configure the data sources with build property values and return the configured parameters.
+   */
+  @Getter
+  @Setter
+  public static class Datasource {
+
+    private Replica replica = new Replica();
+  }
+
+  /**
+   * Configure the read replica with build property values and return the configured parameters.
+   */
+  @Getter
+  @Setter
+  public static class Replica {
+
+    private boolean enabled = false;
+    private String driverClassName;
+    private String url;
+    private String username;
+    private String password;
+    private int maximumPoolSize = 10;
+    // Query returning the replication lag of the replica in seconds, NULL is treated as an unknown lag
+    private String lagQuery = "SELECT EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp())";
+    // Maximum replication lag in seconds, the primary is used if the replica lags behind further
+    private double maxLag = 5;
+    // Number of milliseconds between two checks of the replication lag
+    private long lagCheckRate = 5000;
   }
 }
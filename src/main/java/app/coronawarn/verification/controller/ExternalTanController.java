@@ -22,8 +22,9 @@
 
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
+import app.coronawarn.verification.config.RequestMetrics;
 import app.coronawarn.verification.config.VerificationApplicationConfig;
-import app.coronawarn.verification.domain.VerificationAppSession;
+import app.coronawarn.verification.domain.VerificationAppSessionView;
 import app.coronawarn.verification.exception.VerificationServerException;
 import app.coronawarn.verification.model.AppSessionSourceOfTrust;
 import app.coronawarn.verification.model.HashedGuid;
@@ -34,21 +35,20 @@
 import app.coronawarn.verification.model.TestResult;
 import app.coronawarn.verification.service.AppSessionService;
 import app.coronawarn.verification.service.FakeDelayService;
-import app.coronawarn.verification.service.FakeRequestService;
-import app.coronawarn.verification.service.TanService;
+import app.coronawarn.verification.service.PaddingProvider;
 import app.coronawarn.verification.service.TestResultServerService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
-import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.RandomStringUtils;
 import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -93,17 +93,16 @@ public class ExternalTanController {
   private final TestResultServerService testResultServerService;
 
   @NonNull
-  private final TanService tanService;
-
-  @NonNull
-  private final FakeRequestService fakeRequestService;
+  private final PaddingProvider paddingProvider;
 
   /**
    * This method generates a transaction number by a Registration Token, if the state of the COVID-19 lab-test is
    * positive.
    *
    * @param registrationToken generated by a hashed guid or a teleTAN. {@link RegistrationToken}
-   * @param fake              flag for fake request
+   * @param fake              the cwa-fake header, which adds a response padding if present. Fake requests
+   *                          (cwa-fake: 1) are answered by the
+   *                          {@link app.coronawarn.verification.config.FakeRequestFilter} and never reach this method.
    * @return A generated transaction number {@link Tan}.
    */
   @Operation(
@@ -111,27 +110,26 @@ public class ExternalTanController {
     description = "Generates a TAN on input of Registration Token. With the TAN one can submit his Diagnosis keys"
   )
   @ApiResponses(value = {
-    @ApiResponse(responseCode = "201", description = "Registration Token is valid"),
+    @ApiResponse(responseCode = "201", description = "Registration Token is valid",
+      content = @Content(schema = @Schema(implementation = Tan.class))),
     @ApiResponse(responseCode = "400", description = "Registration Token does not exist")})
   @PostMapping(value = TAN_ROUTE,
     consumes = MediaType.APPLICATION_JSON_VALUE,
     produces = MediaType.APPLICATION_JSON_VALUE
   )
-  public DeferredResult<ResponseEntity<Tan>> generateTan(@Valid @RequestBody RegistrationToken registrationToken,
-                                                         @RequestHeader(value = "cwa-fake", required = false)
-                                                         String fake) {
-    if ((fake != null) && (fake.equals("1"))) {
-      return fakeRequestService.generateTan(registrationToken);
-    }
+  public DeferredResult<ResponseEntity<?>> generateTan(@Valid @RequestBody RegistrationToken registrationToken,
+                                                       @RequestHeader(value = "cwa-fake", required = false)
+                                                       String fake) {
     StopWatch stopWatch = new StopWatch();
     stopWatch.start();
-    Optional<VerificationAppSession> actual
-      = appSessionService.getAppSessionByToken(registrationToken.getRegistrationToken());
+    Optional<VerificationAppSessionView> actual
+      = appSessionService.getAppSessionViewByToken(registrationToken.getRegistrationToken());
     if (actual.isPresent()) {
-      VerificationAppSession appSession = actual.get();
+      VerificationAppSessionView appSession = actual.get();
       int tancountermax = verificationApplicationConfig.getAppsession().getTancountermax();
       if (appSession.getTanCounter() < tancountermax) {
         AppSessionSourceOfTrust appSessionSourceOfTrust = appSession.getSourceOfTrust();
+        RequestMetrics.tagSourceOfTrust(appSessionSourceOfTrust);
         TanSourceOfTrust tanSourceOfTrust = TanSourceOfTrust.CONNECTED_LAB;
         switch (appSessionSourceOfTrust) {
           case HASHED_GUID -> {
@@ -151,21 +149,22 @@ public DeferredResult<ResponseEntity<Tan>> generateTan(@Valid @RequestBody Regis
               "Unknown source of trust inside the appsession for the registration token");
           }
         }
-        appSession.incrementTanCounter();
-        appSession.setUpdatedAt(LocalDateTime.now());
-
-        appSessionService.saveAppSession(appSession);
-        String generatedTan = tanService.generateVerificationTan(tanSourceOfTrust, appSession.getTeleTanType());
-
-        Tan returnTan = generateReturnTan(generatedTan, fake);
+        Optional<String> generatedTan = appSessionService.generateTanForAppSession(
+          appSession.getRegistrationTokenHash(), tanSourceOfTrust, appSession.getTeleTanType());
+
+        if (generatedTan.isPresent()) {
+          Tan returnTan = generateReturnTan(generatedTan.get(), fake);
+          stopWatch.stop();
+          fakeDelayService.updateFakeTanRequestDelay(stopWatch.getTotalTimeMillis());
+          DeferredResult<ResponseEntity<?>> deferredResult = new DeferredResult<>();
+          long delay = fakeDelayService.realDelayTan();
+          scheduledExecutor.schedule(fakeDelayService.withLateness(() -> deferredResult.setResult(
+              ResponseEntity.status(HttpStatus.CREATED).body(returnTan)), delay),
+            delay, MILLISECONDS);
+          log.info("Returning the successfully generated tan.");
+          return deferredResult;
+        }
         stopWatch.stop();
-        fakeDelayService.updateFakeTanRequestDelay(stopWatch.getTotalTimeMillis());
-        DeferredResult<ResponseEntity<Tan>> deferredResult = new DeferredResult<>();
-        scheduledExecutor.schedule(() -> deferredResult.setResult(
-            ResponseEntity.status(HttpStatus.CREATED).body(returnTan)),
-          fakeDelayService.realDelayTan(), MILLISECONDS);
-        log.info("Returning the successfully generated tan.");
-        return deferredResult;
       }
       throw new VerificationServerException(HttpStatus.BAD_REQUEST,
         "The maximum of generating tans for this registration token is reached");
@@ -178,7 +177,7 @@ private Tan generateReturnTan(String tan, String fake) {
     if (fake == null) {
       return new Tan(tan);
     }
-    return new Tan(tan, RandomStringUtils.randomAlphanumeric(RESPONSE_PADDING_LENGTH));
+    return new Tan(tan, paddingProvider.getPadding(RESPONSE_PADDING_LENGTH));
   }
 
 }
@@ -22,8 +22,9 @@
 
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
+import app.coronawarn.verification.config.RequestMetrics;
 import app.coronawarn.verification.config.VerificationApplicationConfig;
-import app.coronawarn.verification.domain.VerificationAppSession;
+import app.coronawarn.verification.domain.VerificationAppSessionView;
 import app.coronawarn.verification.exception.VerificationServerException;
 import app.coronawarn.verification.model.AppSessionSourceOfTrust;
 import app.coronawarn.verification.model.HashedGuid;
@@ -32,9 +33,11 @@
 import app.coronawarn.verification.model.TestResult;
 import app.coronawarn.verification.service.AppSessionService;
 import app.coronawarn.verification.service.FakeDelayService;
-import app.coronawarn.verification.service.FakeRequestService;
+import app.coronawarn.verification.service.PaddingProvider;
 import app.coronawarn.verification.service.TestResultServerService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
@@ -44,7 +47,6 @@
 import java.util.concurrent.ScheduledExecutorService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.RandomStringUtils;
 import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -53,7 +55,6 @@
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.context.request.async.DeferredResult;
@@ -79,8 +80,6 @@ public class ExternalTestStateController {
 
   private final ScheduledExecutorService scheduledExecutor = Executors.newScheduledThreadPool(4);
 
-  private final FakeRequestService fakeRequestService;
-
   private final AppSessionService appSessionService;
 
   private final TestResultServerService testResultServerService;
@@ -89,11 +88,13 @@ public class ExternalTestStateController {
 
   private final VerificationApplicationConfig config;
 
+  private final PaddingProvider paddingProvider;
+
   /**
-   * Returns the test status of the COVID-19 test with cwa-fake header.
+   * Returns the test status of the COVID-19 test. Fake requests (cwa-fake: 1) are answered by the
+   * {@link app.coronawarn.verification.config.FakeRequestFilter} and never reach this method.
    *
    * @param registrationToken generated by a hashed guid {@link RegistrationToken}
-   * @param fake              flag for fake request
    * @return result of the test, which can be POSITIVE, NEGATIVE, INVALID, PENDING, FAILED,
    *     quick-test-POSITIVE, quick-test-NEGATIVE, quick-test-INVALID, quick-test-PENDING or quick-test-FAILED
    *     will be POSITIVE for TeleTan
@@ -104,32 +105,30 @@ public class ExternalTestStateController {
       + "If the RegistrationToken belongs to a TeleTan the result is always positive"
   )
   @ApiResponses(value = {
-    @ApiResponse(responseCode = "200", description = "Testresult retrieved"),
+    @ApiResponse(responseCode = "200", description = "Testresult retrieved",
+      content = @Content(schema = @Schema(implementation = TestResult.class))),
     @ApiResponse(responseCode = "403", description = "TestResult of dob hash does not equal to TestResult of hash")
   })
   @PostMapping(value = TESTRESULT_ROUTE,
     consumes = MediaType.APPLICATION_JSON_VALUE,
     produces = MediaType.APPLICATION_JSON_VALUE
   )
-  public DeferredResult<ResponseEntity<TestResult>> getTestState(
-    @Valid @RequestBody RegistrationToken registrationToken,
-    @RequestHeader(value = "cwa-fake", required = false) String fake) {
-    if ((fake != null) && (fake.equals("1"))) {
-      return fakeRequestService.getTestState(registrationToken);
-    }
+  public DeferredResult<ResponseEntity<?>> getTestState(
+    @Valid @RequestBody RegistrationToken registrationToken) {
     StopWatch stopWatch = new StopWatch();
     stopWatch.start();
-    Optional<VerificationAppSession> appSession =
-      appSessionService.getAppSessionByToken(registrationToken.getRegistrationToken());
+    Optional<VerificationAppSessionView> appSession =
+      appSessionService.getAppSessionViewByTokenFromReplica(registrationToken.getRegistrationToken());
     if (appSession.isPresent()) {
       AppSessionSourceOfTrust sourceOfTrust = appSession.get().getSourceOfTrust();
-      DeferredResult<ResponseEntity<TestResult>> deferredResult = new DeferredResult<>();
+      RequestMetrics.tagSourceOfTrust(sourceOfTrust);
+      DeferredResult<ResponseEntity<?>> deferredResult = new DeferredResult<>();
 
       switch (sourceOfTrust) {
         case HASHED_GUID -> {
           HashedGuid hash = new HashedGuid(appSession.get().getHashedGuid());
           TestResult testResult = testResultServerService.result(hash);
-          testResult.setResponsePadding(RandomStringUtils.randomAlphanumeric(RESPONSE_PADDING_LENGTH));
+          testResult.setResponsePadding(paddingProvider.getPadding(RESPONSE_PADDING_LENGTH));
 
           // Check DOB Hash if present
           if (!config.isDisableDobHashCheckForExternalTestResult() && appSession.get().getHashedGuidDob() != null) {
@@ -155,10 +154,11 @@ public DeferredResult<ResponseEntity<TestResult>> getTestState(
           log.info("The result for registration token based on teleTAN will be returned.");
           stopWatch.stop();
           fakeDelayService.updateFakeTestRequestDelay(stopWatch.getTotalTimeMillis());
-          scheduledExecutor.schedule(() -> deferredResult.setResult(ResponseEntity.ok(
+          long delay = fakeDelayService.realDelayTest();
+          scheduledExecutor.schedule(fakeDelayService.withLateness(() -> deferredResult.setResult(ResponseEntity.ok(
               generateReturnTestResult(LabTestResult.POSITIVE.getTestResult(),
-                appSession.get().getCreatedAt().toEpochSecond(ZoneOffset.UTC), null))),
-            fakeDelayService.realDelayTest(), MILLISECONDS);
+                appSession.get().getCreatedAt().toEpochSecond(ZoneOffset.UTC), null))), delay),
+            delay, MILLISECONDS);
           return deferredResult;
         }
         default -> {
@@ -174,6 +174,6 @@ public DeferredResult<ResponseEntity<TestResult>> getTestState(
   }
 
   private TestResult generateReturnTestResult(Integer testResult, Long sc, String labId) {
-    return new TestResult(testResult,sc, labId, RandomStringUtils.randomAlphanumeric(RESPONSE_PADDING_LENGTH));
+    return new TestResult(testResult,sc, labId, paddingProvider.getPadding(RESPONSE_PADDING_LENGTH));
   }
 }
@@ -22,6 +22,7 @@
 
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
+import app.coronawarn.verification.config.RequestMetrics;
 import app.coronawarn.verification.domain.VerificationTan;
 import app.coronawarn.verification.exception.VerificationServerException;
 import app.coronawarn.verification.model.RegistrationToken;
@@ -29,9 +30,10 @@
 import app.coronawarn.verification.model.RegistrationTokenRequest;
 import app.coronawarn.verification.service.AppSessionService;
 import app.coronawarn.verification.service.FakeDelayService;
-import app.coronawarn.verification.service.FakeRequestService;
 import app.coronawarn.verification.service.TanService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
@@ -71,8 +73,6 @@ public class ExternalTokenController {
 
   private final ScheduledExecutorService scheduledExecutor = Executors.newScheduledThreadPool(4);
 
-  private final FakeRequestService fakeRequestController;
-
   private final AppSessionService appSessionService;
 
   private final TanService tanService;
@@ -83,29 +83,30 @@ public class ExternalTokenController {
    * This method generates a registrationToken by a hashed guid or a teleTAN.
    *
    * @param request {@link RegistrationTokenRequest}
-   * @param fake    flag for fake request
+   * @param fake    the cwa-fake header, which adds a response padding if present. Fake requests (cwa-fake: 1) are
+   *                answered by the {@link app.coronawarn.verification.config.FakeRequestFilter} and never reach this
+   *                method.
    * @return RegistrationToken - the created registration token {@link RegistrationToken}
    */
   @Operation(
     summary = "Get registration Token",
     description = "Get a registration token by providing a SHA-256 hasehd GUID or a teleTAN")
   @ApiResponses(value = {
-    @ApiResponse(responseCode = "201", description = "registration token generated."),
+    @ApiResponse(responseCode = "201", description = "registration token generated.",
+      content = @Content(schema = @Schema(implementation = RegistrationToken.class))),
     @ApiResponse(responseCode = "400", description = "GUID/TeleTAN already exists.")})
   @PostMapping(value = REGISTRATION_TOKEN_ROUTE,
     consumes = MediaType.APPLICATION_JSON_VALUE,
     produces = MediaType.APPLICATION_JSON_VALUE)
-  public DeferredResult<ResponseEntity<RegistrationToken>> generateRegistrationToken(
+  public DeferredResult<ResponseEntity<?>> generateRegistrationToken(
     @RequestBody @Valid RegistrationTokenRequest request,
     @RequestHeader(value = "cwa-fake", required = false) String fake) {
-    if ((fake != null) && (fake.equals("1"))) {
-      return fakeRequestController.generateRegistrationToken(request);
-    }
     StopWatch stopWatch = new StopWatch();
     stopWatch.start();
     String key = request.getKey();
     RegistrationTokenKeyType keyType = request.getKeyType();
-    DeferredResult<ResponseEntity<RegistrationToken>> deferredResult = new DeferredResult<>();
+    RequestMetrics.tagKeyType(keyType);
+    DeferredResult<ResponseEntity<?>> deferredResult = new DeferredResult<>();
 
     switch (keyType) {
       case GUID -> {
@@ -118,19 +119,18 @@ public DeferredResult<ResponseEntity<RegistrationToken>> generateRegistrationTok
         return deferredResult;
       }
       case TELETAN -> {
-        Optional<VerificationTan> optional = tanService.getEntityByTan(key);
-        ResponseEntity<RegistrationToken> response = appSessionService.generateRegistrationTokenByTeleTan(
-          key,
-          fake,
-          optional.map(VerificationTan::getTeleTanType).orElse(null));
+        Optional<VerificationTan> optional = tanService.findRedeemableTeleTan(key);
         if (optional.isPresent()) {
           VerificationTan teleTan = optional.get();
+          ResponseEntity<RegistrationToken> response =
+            appSessionService.generateRegistrationTokenByTeleTan(teleTan, fake);
           teleTan.setRedeemed(true);
           tanService.saveTan(teleTan);
           stopWatch.stop();
           fakeDelayService.updateFakeTokenRequestDelay(stopWatch.getTotalTimeMillis());
-          scheduledExecutor.schedule(() -> deferredResult.setResult(response), fakeDelayService.realDelayToken(),
-            MILLISECONDS);
+          long delay = fakeDelayService.realDelayToken();
+          scheduledExecutor.schedule(fakeDelayService.withLateness(() -> deferredResult.setResult(response), delay),
+            delay, MILLISECONDS);
           log.info("Returning the successfully generated RegistrationToken.");
           return deferredResult;
         }
@@ -0,0 +1,96 @@
+/*-
+ * ---license-start
+ * Corona-Warn-App / cwa-verification
+ * ---
+ * Copyright (C) 2020 - 2022 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package app.coronawarn.verification.controller;
+
+import app.coronawarn.verification.service.FakeDelayService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * This class represents the actuator endpoint showing the state of the {@link FakeDelayService} next to the latency
+ * distributions of the real and fake requests, so the timing indistinguishability can be verified under load.
+ */
+@Component
+@RequiredArgsConstructor
+@Endpoint(id = "fakedelay")
+public class FakeDelayEndpoint {
+
+  private static final String REQUEST_METRIC = "verification.request";
+
+  @NonNull
+  private final FakeDelayService fakeDelayService;
+
+  @NonNull
+  private final MeterRegistry meterRegistry;
+
+  /**
+   * This method returns the moving averages, the distributions of the applied delays, the lateness of the scheduled
+   * completions and the latency distributions of the requests per route, split into real and fake requests.
+   *
+   * @return the fake delay state and distributions
+   */
+  @ReadOperation
+  public Map<String, Object> fakeDelay() {
+    Map<String, Object> averages = new LinkedHashMap<>();
+    averages.put("tan", fakeDelayService.getFakeTanDelayInSeconds());
+    averages.put("test", fakeDelayService.getFakeTestDelayInSeconds());
+    averages.put("token", fakeDelayService.getFakeTokenDelayInSeconds());
+
+    Map<String, Object> result = new LinkedHashMap<>();
+    result.put("movingAverageSeconds", averages);
+    result.put("appliedDelays", distributions(FakeDelayService.APPLIED_METRIC));
+    result.put("lateness", distributions(FakeDelayService.LATENESS_METRIC));
+    result.put("requests", distributions(REQUEST_METRIC));
+    return result;
+  }
+
+  private List<Map<String, Object>> distributions(String metric) {
+    List<Map<String, Object>> distributions = new ArrayList<>();
+    for (Timer timer : meterRegistry.find(metric).timers()) {
+      Map<String, Object> distribution = new LinkedHashMap<>();
+      timer.getId().getTags().forEach(tag -> distribution.put(tag.getKey(), tag.getValue()));
+      HistogramSnapshot snapshot = timer.takeSnapshot();
+      distribution.put("count", snapshot.count());
+      distribution.put("meanMillis", snapshot.mean(TimeUnit.MILLISECONDS));
+      distribution.put("maxMillis", snapshot.max(TimeUnit.MILLISECONDS));
+      Map<String, Double> percentiles = new LinkedHashMap<>();
+      for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+        percentiles.put(String.valueOf(percentile.percentile()), percentile.value(TimeUnit.MILLISECONDS));
+      }
+      distribution.put("percentilesMillis", percentiles);
+      distributions.add(distribution);
+    }
+    return distributions;
+  }
+}
@@ -20,11 +20,16 @@
 
 package app.coronawarn.verification.controller;
 
+import app.coronawarn.verification.config.VerificationApplicationConfig;
 import app.coronawarn.verification.exception.VerificationServerException;
 import app.coronawarn.verification.model.AuthorizationRole;
 import app.coronawarn.verification.model.AuthorizationToken;
 import app.coronawarn.verification.model.Tan;
+import app.coronawarn.verification.model.TanList;
+import app.coronawarn.verification.model.TanVerification;
+import app.coronawarn.verification.model.TanVerificationList;
 import app.coronawarn.verification.model.TeleTan;
+import app.coronawarn.verification.model.TeleTanList;
 import app.coronawarn.verification.model.TeleTanType;
 import app.coronawarn.verification.service.JwtService;
 import app.coronawarn.verification.service.TanService;
@@ -36,6 +41,7 @@
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -48,6 +54,7 @@
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 /**
@@ -65,10 +72,18 @@ public class InternalTanController {
    * The route to the tan verification endpoint.
    */
   public static final String TAN_VERIFY_ROUTE = "/tan/verify";
+  /**
+   * The route to the bulk tan verification endpoint.
+   */
+  public static final String TAN_VERIFY_BULK_ROUTE = "/tan/verify/bulk";
   /**
    * The route to the teleTAN generation endpoint.
    */
   public static final String TELE_TAN_ROUTE = "/tan/teletan";
+  /**
+   * The route to the bulk teleTAN generation endpoint.
+   */
+  public static final String TELE_TAN_BULK_ROUTE = "/tan/teletan/bulk";
 
   public static final String TELE_TAN_TYPE_HEADER = "X-CWA-TELETAN-TYPE";
 
@@ -78,6 +93,9 @@ public class InternalTanController {
   @NonNull
   private final JwtService jwtService;
 
+  @NonNull
+  private final VerificationApplicationConfig verificationApplicationConfig;
+
   /**
    * This provided REST method verifies the transaction number (TAN).
    *
@@ -100,10 +118,10 @@ public class InternalTanController {
     consumes = MediaType.APPLICATION_JSON_VALUE
   )
   public ResponseEntity<?> verifyTan(@Valid @RequestBody Tan tan) {
-    return tanService.getEntityByTan(tan.getTan())
+    return tanService.getTanViewByTan(tan.getTan())
       .filter(t -> t.canBeRedeemed(LocalDateTime.now()))
+      .filter(t -> tanService.deleteTanById(t.getId()))
       .map(t -> {
-        tanService.deleteTan(t);
         log.info("The Tan is valid.");
         return t;
       })
@@ -122,6 +140,32 @@ public ResponseEntity<?> verifyTan(@Valid @RequestBody Tan tan) {
       });
   }
 
+  /**
+   * This provided REST method verifies multiple transaction numbers (TAN) with one request. Each valid TAN is consumed
+   * like by {@link #verifyTan(Tan)}.
+   *
+   * @param tanList - the transaction numbers, which need to be verified {@link TanList}
+   * @return HTTP 200 with the verification result and the teleTAN type of each TAN.
+   */
+  @Operation(
+    summary = "Verify provided Tans",
+    description = "The provided Tans are verified to be formerly issued by the verification server"
+  )
+  @ApiResponses(value = {
+    @ApiResponse(responseCode = "200", description = "Verification result of each Tan"),
+    @ApiResponse(responseCode = "400", description = "Tans are missing, too many or have an invalid syntax")})
+  @PostMapping(value = TAN_VERIFY_BULK_ROUTE,
+    consumes = MediaType.APPLICATION_JSON_VALUE,
+    produces = MediaType.APPLICATION_JSON_VALUE
+  )
+  public ResponseEntity<TanVerificationList> verifyTans(@Valid @RequestBody TanList tanList) {
+    List<TanVerification> verifications = tanService.verifyAndDeleteTans(
+      tanList.getTans().stream().map(Tan::getTan).toList());
+    log.info("{} of {} Tans are valid.",
+      verifications.stream().filter(TanVerification::isValid).count(), verifications.size());
+    return ResponseEntity.ok(new TanVerificationList(verifications));
+  }
+
   /**
    * This method generates a valid teleTAN.
    *
@@ -141,20 +185,56 @@ public ResponseEntity<TeleTan> createTeleTan(
     @RequestHeader(JwtService.HEADER_NAME_AUTHORIZATION) @Valid AuthorizationToken authorization,
     @RequestHeader(value = TELE_TAN_TYPE_HEADER, required = false) @Valid TeleTanType teleTanType) {
 
-    List<AuthorizationRole> requiredRoles = new ArrayList<>();
-
-    if (teleTanType == null) {
-      teleTanType = TeleTanType.TEST;
-      requiredRoles.add(AuthorizationRole.AUTH_C19_HOTLINE);
-    } else if (teleTanType == TeleTanType.EVENT) {
-      requiredRoles.add(AuthorizationRole.AUTH_C19_HOTLINE_EVENT);
+    if (jwtService.isAuthorized(authorization.getToken(), getRequiredRoles(teleTanType))) {
+      Optional<String> teleTan = tanService.generateVerificationTeleTanWithinRateLimit(
+        teleTanType == null ? TeleTanType.TEST : teleTanType);
+      if (teleTan.isPresent()) {
+        log.info("The teleTAN is generated.");
+        return ResponseEntity.status(HttpStatus.CREATED).body(new TeleTan(teleTan.get()));
+      } else {
+        throw new VerificationServerException(HttpStatus.TOO_MANY_REQUESTS, "Rate Limit exceed. Try again later.");
+      }
     }
+    throw new VerificationServerException(HttpStatus.UNAUTHORIZED, "JWT is invalid.");
+  }
 
-    if (jwtService.isAuthorized(authorization.getToken(), requiredRoles)) {
-      if (tanService.isTeleTanRateLimitNotExceeded()) {
-        String teleTan = tanService.generateVerificationTeleTan(teleTanType);
-        log.info("The teleTAN is generated.");
-        return ResponseEntity.status(HttpStatus.CREATED).body(new TeleTan(teleTan));
+  /**
+   * This method generates the requested number of valid teleTANs with one authorization and one rate limit check. The
+   * count is validated only for authorized requests.
+   *
+   * @param authorization auth
+   * @param teleTanType   type of the teleTANs
+   * @param count         the number of teleTANs to generate
+   * @return the created teletans
+   */
+  @Operation(
+    summary = "Request generation of multiple teleTANs",
+    description = "Generates the requested number of teleTANs at once, e.g. to prepare teleTANs for an event"
+  )
+  @ApiResponses(value = {
+    @ApiResponse(responseCode = "201", description = "TeleTans created"),
+    @ApiResponse(responseCode = "400", description = "Count is not within the allowed range"),
+    @ApiResponse(responseCode = "429", description = "Rate limit would be exceeded by the requested teleTans")})
+  @PostMapping(value = TELE_TAN_BULK_ROUTE,
+    produces = MediaType.APPLICATION_JSON_VALUE
+  )
+  public ResponseEntity<TeleTanList> createTeleTans(
+    @RequestHeader(JwtService.HEADER_NAME_AUTHORIZATION) @Valid AuthorizationToken authorization,
+    @RequestHeader(value = TELE_TAN_TYPE_HEADER, required = false) @Valid TeleTanType teleTanType,
+    @RequestParam("count") int count) {
+
+    if (jwtService.isAuthorized(authorization.getToken(), getRequiredRoles(teleTanType))) {
+      int maxCount = verificationApplicationConfig.getTan().getTele().getBulk().getMaxCount();
+      if (count < 1 || count > maxCount) {
+        throw new VerificationServerException(HttpStatus.BAD_REQUEST,
+          "The count of teleTANs has to be between 1 and " + maxCount + ".");
+      }
+      Optional<List<String>> teleTans = tanService.generateVerificationTeleTansWithinRateLimit(
+        count, teleTanType == null ? TeleTanType.TEST : teleTanType);
+      if (teleTans.isPresent()) {
+        log.info("{} teleTANs are generated.", teleTans.get().size());
+        return ResponseEntity.status(HttpStatus.CREATED)
+          .body(new TeleTanList(teleTans.get().stream().map(TeleTan::new).toList()));
       } else {
         throw new VerificationServerException(HttpStatus.TOO_MANY_REQUESTS, "Rate Limit exceed. Try again later.");
       }
@@ -162,4 +242,15 @@ public ResponseEntity<TeleTan> createTeleTan(
     throw new VerificationServerException(HttpStatus.UNAUTHORIZED, "JWT is invalid.");
   }
 
+  private static List<AuthorizationRole> getRequiredRoles(TeleTanType teleTanType) {
+    List<AuthorizationRole> requiredRoles = new ArrayList<>();
+
+    if (teleTanType == null) {
+      requiredRoles.add(AuthorizationRole.AUTH_C19_HOTLINE);
+    } else if (teleTanType == TeleTanType.EVENT) {
+      requiredRoles.add(AuthorizationRole.AUTH_C19_HOTLINE_EVENT);
+    }
+    return requiredRoles;
+  }
+
 }
@@ -20,7 +20,8 @@
 
 package app.coronawarn.verification.controller;
 
-import app.coronawarn.verification.domain.VerificationAppSession;
+import app.coronawarn.verification.config.RequestMetrics;
+import app.coronawarn.verification.domain.VerificationAppSessionView;
 import app.coronawarn.verification.exception.VerificationServerException;
 import app.coronawarn.verification.model.AppSessionSourceOfTrust;
 import app.coronawarn.verification.model.HashedGuid;
@@ -91,11 +92,12 @@ public class InternalTestStateController {
   )
   public ResponseEntity<InternalTestResult> getTestState(@Valid @RequestBody RegistrationToken registrationToken) {
 
-    Optional<VerificationAppSession> appSession =
-      appSessionService.getAppSessionByToken(registrationToken.getRegistrationToken());
+    Optional<VerificationAppSessionView> appSession =
+      appSessionService.getAppSessionViewByTokenFromReplica(registrationToken.getRegistrationToken());
 
     if (appSession.isPresent()) {
       AppSessionSourceOfTrust sourceOfTrust = appSession.get().getSourceOfTrust();
+      RequestMetrics.tagSourceOfTrust(sourceOfTrust);
 
       switch (sourceOfTrust) {
         case HASHED_GUID -> {
@@ -20,6 +20,7 @@
 
 package app.coronawarn.verification.controller;
 
+import app.coronawarn.verification.exception.RequestSizeLimitExceededException;
 import app.coronawarn.verification.exception.VerificationServerException;
 import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
@@ -60,15 +61,41 @@ public void unknownException(Exception ex, WebRequest wr) {
    * @param ex the thrown exception
    * @param wr the WebRequest
    */
-  @ExceptionHandler({
-    HttpMessageNotReadableException.class,
-    ServletRequestBindingException.class
-  })
+  @ExceptionHandler(ServletRequestBindingException.class)
   @ResponseStatus(HttpStatus.BAD_REQUEST)
   public void bindingExceptions(Exception ex, WebRequest wr) {
     log.error("Binding failed {}", wr.getDescription(false), ex);
   }
 
+  /**
+   * This method handles unreadable request bodies. A body exceeding the request size limit is rejected with Not
+   * Acceptable, like the requests rejected by the request size limit filter.
+   *
+   * @param ex the thrown exception
+   * @param wr the WebRequest
+   * @return ResponseEntity<Void> returns Bad Request or Not Acceptable
+   */
+  @ExceptionHandler(HttpMessageNotReadableException.class)
+  public ResponseEntity<Void> messageNotReadableException(HttpMessageNotReadableException ex, WebRequest wr) {
+    if (ex.getRootCause() instanceof RequestSizeLimitExceededException) {
+      return requestSizeLimitExceededException(wr);
+    }
+    log.error("Binding failed {}", wr.getDescription(false), ex);
+    return ResponseEntity.badRequest().build();
+  }
+
+  /**
+   * This method handles request bodies exceeding the request size limit.
+   *
+   * @param wr the WebRequest
+   * @return ResponseEntity<Void> returns Not Acceptable
+   */
+  @ExceptionHandler(RequestSizeLimitExceededException.class)
+  public ResponseEntity<Void> requestSizeLimitExceededException(WebRequest wr) {
+    log.warn("The request body is too large {}", wr.getDescription(false));
+    return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE).build();
+  }
+
   /**
    * This method handles Validation Exceptions.
    *
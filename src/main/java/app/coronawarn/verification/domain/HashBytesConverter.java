@@ -0,0 +1,67 @@
+/*-
+ * ---license-start
+ * Corona-Warn-App / cwa-verification
+ * ---
+ * Copyright (C) 2020 - 2022 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package app.coronawarn.verification.domain;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import java.util.HexFormat;
+
+/**
+ * This class converts the SHA-256 hex strings of the entities into their binary representation. It is only applied,
+ * if the binary hash storage is enabled with the "binary-hash" profile.
+ *
+ * <p>A hashed GUID with date of birth has an 'x' instead of its first hex digit. Such a hash is stored with an
+ * additional leading marker byte, so it can be converted back without loss.
+ */
+@Converter
+public class HashBytesConverter implements AttributeConverter<String, byte[]> {
+
+  private static final HexFormat HEX_FORMAT = HexFormat.of();
+  private static final char DOB_PREFIX = 'x';
+  private static final byte DOB_MARKER = 0x01;
+  private static final int HASH_BYTES = 32;
+
+  @Override
+  public byte[] convertToDatabaseColumn(String hash) {
+    if (hash == null) {
+      return null;
+    }
+    if (Character.toLowerCase(hash.charAt(0)) != DOB_PREFIX) {
+      return HEX_FORMAT.parseHex(hash);
+    }
+    byte[] decoded = HEX_FORMAT.parseHex("0" + hash.substring(1));
+    byte[] marked = new byte[decoded.length + 1];
+    marked[0] = DOB_MARKER;
+    System.arraycopy(decoded, 0, marked, 1, decoded.length);
+    return marked;
+  }
+
+  @Override
+  public String convertToEntityAttribute(byte[] bytes) {
+    if (bytes == null) {
+      return null;
+    }
+    if (bytes.length == HASH_BYTES + 1 && bytes[0] == DOB_MARKER) {
+      return DOB_PREFIX + HEX_FORMAT.formatHex(bytes, 1, bytes.length).substring(1);
+    }
+    return HEX_FORMAT.formatHex(bytes);
+  }
+}
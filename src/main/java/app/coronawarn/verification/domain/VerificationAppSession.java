@@ -29,6 +29,7 @@
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.persistence.Version;
 import java.io.Serializable;
@@ -54,7 +55,8 @@ public class VerificationAppSession implements Serializable {
   private static final long serialVersionUID = 1L;
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "app_session_id_seq")
+  @SequenceGenerator(name = "app_session_id_seq", sequenceName = "app_session_id_seq", allocationSize = 50)
   @Column(name = "id")
   private Long id;
 
@@ -91,11 +93,4 @@ public class VerificationAppSession implements Serializable {
   @Enumerated(EnumType.STRING)
   private TeleTanType teleTanType;
 
-  /**
-   * This method increments the tan counter.
-   */
-  public void incrementTanCounter() {
-    this.tanCounter++;
-  }
-
 }
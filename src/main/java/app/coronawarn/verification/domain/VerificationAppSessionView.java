@@ -0,0 +1,49 @@
+/*-
+ * ---license-start
+ * Corona-Warn-App / cwa-verification
+ * ---
+ * Copyright (C) 2020 - 2022 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package app.coronawarn.verification.domain;
+
+import app.coronawarn.verification.model.AppSessionSourceOfTrust;
+import app.coronawarn.verification.model.TeleTanType;
+import java.time.LocalDateTime;
+
+/**
+ * This interface represents a read only projection of the AppSession-entity.
+ */
+public interface VerificationAppSessionView {
+
+  LocalDateTime getCreatedAt();
+
+  String getHashedGuid();
+
+  String getHashedGuidDob();
+
+  String getRegistrationTokenHash();
+
+  int getTanCounter();
+
+  AppSessionSourceOfTrust getSourceOfTrust();
+
+  TeleTanType getTeleTanType();
+
+  long getVersion();
+
+}
@@ -30,6 +30,7 @@
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.persistence.Version;
 import java.io.Serializable;
@@ -55,7 +56,8 @@ public class VerificationTan implements Serializable {
   static final long SERIAL_VERSION_UID = 1L;
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tan_id_seq")
+  @SequenceGenerator(name = "tan_id_seq", sequenceName = "tan_id_seq", allocationSize = 50)
   @Column(name = "id")
   private Long id;
 
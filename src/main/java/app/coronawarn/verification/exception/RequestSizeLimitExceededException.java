@@ -0,0 +1,40 @@
+/*-
+ * ---license-start
+ * Corona-Warn-App / cwa-verification
+ * ---
+ * Copyright (C) 2020 - 2022 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package app.coronawarn.verification.exception;
+
+import java.io.IOException;
+
+/**
+ * This class represents the Exception thrown while reading a request body, which is larger than the request size
+ * limit. It is an {@link IOException}, so it is propagated by the readers of the body like any other read error.
+ */
+public class RequestSizeLimitExceededException extends IOException {
+
+  /**
+   * The Constructor for the Exception class.
+   *
+   * @param message the message
+   */
+  public RequestSizeLimitExceededException(String message) {
+    super(message);
+  }
+
+}
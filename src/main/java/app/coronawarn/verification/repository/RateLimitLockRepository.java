@@ -0,0 +1,46 @@
+/*-
+ * ---license-start
+ * Corona-Warn-App / cwa-verification
+ * ---
+ * Copyright (C) 2020 - 2022 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package app.coronawarn.verification.repository;
+
+import app.coronawarn.verification.domain.RateLimitLock;
+import jakarta.persistence.LockModeType;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+
+/**
+ * This class represents the rate limit lock repository.
+ */
+public interface RateLimitLockRepository extends JpaRepository<RateLimitLock, String> {
+
+  /**
+   * This method looks in the Database for the lock of the rate limit and locks it until the end of the transaction, so
+   * concurrent requests of all instances check the rate limit one after another.
+   *
+   * @param name the name of the rate limit
+   * @return the locked RateLimitLock
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("select a from RateLimitLock a where a.name = ?1")
+  Optional<RateLimitLock> findForUpdateByName(String name);
+
+}
@@ -21,7 +21,9 @@
 package app.coronawarn.verification.repository;
 
 import app.coronawarn.verification.domain.VerificationAppSession;
+import app.coronawarn.verification.domain.VerificationAppSessionView;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
@@ -41,21 +43,31 @@ public interface VerificationAppSessionRepository extends JpaRepository<Verifica
   Optional<VerificationAppSession> findByRegistrationTokenHash(String registrationTokenHash);
 
   /**
-   * This method looks in the Database for an Appsession with the given hashedGuid.
+   * This method looks in the Database for an Appsession with the given registrationTokenHash and returns only the
+   * columns of the read only projection.
    *
-   * @param hashedGuid hash to search for
-   * @param hashedGuidDob hash to search for
-   * @return Optional VerificationAppSession the optional Appsession
+   * @param registrationTokenHash hash to search for
+   * @return Optional VerificationAppSessionView the optional projection of the Appsession
    */
-  Optional<VerificationAppSession> findByHashedGuidOrHashedGuidDob(String hashedGuid, String hashedGuidDob);
+  Optional<VerificationAppSessionView> findViewByRegistrationTokenHash(String registrationTokenHash);
+
+  /**
+   * This method checks in the Database if an Appsession exists, which uses one of the given hashes either as
+   * hashedGuid or as hashedGuidDob.
+   *
+   * @param hashedGuids hashes to search for in the hashedGuid column
+   * @param hashedGuidDobs hashes to search for in the hashedGuidDob column
+   * @return if there is an Appsession for one of the hashes
+   */
+  boolean existsByHashedGuidInOrHashedGuidDobIn(Collection<String> hashedGuids, Collection<String> hashedGuidDobs);
   
   /**
-   * This method looks in the Database for an Appsession with the given teleTanHash.
+   * This method checks in the Database whether an Appsession with the given teleTanHash exists.
    *
    * @param teleTanHash hash to search for
-   * @return Optional VerificationAppSession the optional Appsession
+   * @return if there is an Appsession for the teleTanHash
    */
-  Optional<VerificationAppSession> findByTeleTanHash(String teleTanHash);
+  boolean existsByTeleTanHash(String teleTanHash);
   
   /**
    * This method looks in the Database for Appsessions that are older than the before value and deletes them.
@@ -65,4 +77,27 @@ public interface VerificationAppSessionRepository extends JpaRepository<Verifica
   @Modifying
   @Query("delete from VerificationAppSession a where a.createdAt < ?1")
   void deleteByCreatedAtBefore(LocalDateTime before);
+
+  /**
+   * This method increments the tan counter of the Appsession with the given registrationTokenHash in a single
+   * statement, as long as the tan counter is lower than the given maximum.
+   *
+   * @param registrationTokenHash hash to search for
+   * @param tanCounterMax the maximum number of tans for an Appsession
+   * @param updatedAt the new update timestamp of the Appsession
+   * @return the number of updated Appsessions, 0 if the maximum is already reached
+   */
+  @Modifying
+  @Query("update VerificationAppSession a set a.tanCounter = a.tanCounter + 1, a.updatedAt = ?3,"
+    + " a.version = a.version + 1 where a.registrationTokenHash = ?1 and a.tanCounter < ?2")
+  int incrementTanCounter(String registrationTokenHash, int tanCounterMax, LocalDateTime updatedAt);
+
+  /**
+   * This method returns the version of the Appsession with the given registrationTokenHash.
+   *
+   * @param registrationTokenHash hash to search for
+   * @return the version of the Appsession
+   */
+  @Query("select a.version from VerificationAppSession a where a.registrationTokenHash = ?1")
+  long findVersionByRegistrationTokenHash(String registrationTokenHash);
 }
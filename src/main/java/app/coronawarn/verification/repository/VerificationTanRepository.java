@@ -21,12 +21,18 @@
 package app.coronawarn.verification.repository;
 
 import app.coronawarn.verification.domain.VerificationTan;
+import app.coronawarn.verification.domain.VerificationTanView;
 import app.coronawarn.verification.model.TanType;
+import jakarta.persistence.LockModeType;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * This class represents the Tan repository.
@@ -41,6 +47,15 @@ public interface VerificationTanRepository extends JpaRepository<VerificationTan
    */
   boolean existsByTanHash(String tanHash);
 
+  /**
+   * This method looks in the Database for the tan hashes of the given ones which already exist.
+   *
+   * @param tanHashes hashes to search for
+   * @return the tan hashes for which there is an Entity
+   */
+  @Query("select a.tanHash from VerificationTan a where a.tanHash in ?1")
+  List<String> findExistingTanHashes(Collection<String> tanHashes);
+
   /**
    * This method looks in the Database for an if a VerificationTan exists for the tan hash.
    *
@@ -49,6 +64,47 @@ public interface VerificationTanRepository extends JpaRepository<VerificationTan
    */
   Optional<VerificationTan> findByTanHash(String tanHash);
 
+  /**
+   * This method looks in the Database for a VerificationTan with the tan hash and returns only the columns of the
+   * read only projection.
+   *
+   * @param tanHash hash to search for
+   * @return Optional VerificationTanView
+   */
+  Optional<VerificationTanView> findViewByTanHash(String tanHash);
+
+  /**
+   * This method deletes the VerificationTan with the given id without loading it into the persistence context.
+   *
+   * @param id the id of the VerificationTan
+   * @return the number of deleted entities
+   */
+  @Modifying
+  @Transactional
+  @Query("delete from VerificationTan a where a.id = ?1")
+  int deleteTanById(Long id);
+
+  /**
+   * This method looks in the Database for the VerificationTans with the tan hashes and locks them until the end of the
+   * transaction, so they can not be redeemed concurrently.
+   *
+   * @param tanHashes hashes to search for
+   * @return the locked VerificationTans
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("select a from VerificationTan a where a.tanHash in ?1")
+  List<VerificationTan> findForUpdateByTanHashIn(Collection<String> tanHashes);
+
+  /**
+   * This method deletes the VerificationTans with the given ids without loading them into the persistence context.
+   *
+   * @param ids the ids of the VerificationTans
+   * @return the number of deleted entities
+   */
+  @Modifying
+  @Query("delete from VerificationTan a where a.id in ?1")
+  int deleteTansByIdIn(Collection<Long> ids);
+
   /**
    * This method purges Entities from the database that are older than before value.
    *
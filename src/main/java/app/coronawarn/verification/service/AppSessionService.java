@@ -20,23 +20,30 @@
 
 package app.coronawarn.verification.service;
 
+import app.coronawarn.verification.config.ReplicaRoutingDataSource;
+import app.coronawarn.verification.config.VerificationApplicationConfig;
 import app.coronawarn.verification.domain.VerificationAppSession;
+import app.coronawarn.verification.domain.VerificationAppSessionView;
+import app.coronawarn.verification.domain.VerificationTan;
 import app.coronawarn.verification.exception.VerificationServerException;
 import app.coronawarn.verification.model.AppSessionSourceOfTrust;
 import app.coronawarn.verification.model.RegistrationToken;
+import app.coronawarn.verification.model.TanSourceOfTrust;
 import app.coronawarn.verification.model.TeleTanType;
 import app.coronawarn.verification.repository.VerificationAppSessionRepository;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.RandomStringUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataAccessException;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * This class represents the VerificationAppSession service.
@@ -59,6 +66,39 @@ public class AppSessionService {
   @NonNull
   private final HashingService hashingService;
 
+  /**
+   * The {@link TanService}.
+   */
+  @NonNull
+  private final TanService tanService;
+
+  @NonNull
+  private final VerificationApplicationConfig verificationApplicationConfig;
+
+  /**
+   * The {@link EntropyService}.
+   */
+  @NonNull
+  private final EntropyService entropyService;
+
+  /**
+   * The {@link PaddingProvider}.
+   */
+  @NonNull
+  private final PaddingProvider paddingProvider;
+
+  /**
+   * The {@link AppSessionViewCache}.
+   */
+  @NonNull
+  private final AppSessionViewCache appSessionViewCache;
+
+  /**
+   * The {@link ReplicaRoutingDataSource}, which is only available if a read replica is configured.
+   */
+  @NonNull
+  private final ObjectProvider<ReplicaRoutingDataSource> replicaRoutingDataSource;
+
   /**
    * Creates an AppSession-Entity.
    *
@@ -75,7 +115,7 @@ public VerificationAppSession generateAppSession(String registrationToken) {
   }
 
   private String generateRegistrationToken() {
-    return UUID.randomUUID().toString();
+    return entropyService.randomUuid().toString();
   }
 
   /**
@@ -87,13 +127,8 @@ private String generateRegistrationToken() {
   public ResponseEntity<RegistrationToken> generateRegistrationTokenByGuid(
     String hashedGuid, String hashedGuidDob, String fake) {
 
-    if (checkRegistrationTokenAlreadyExistsForGuid(hashedGuid)) {
-      log.warn("The registration token already exists for the hashed guid.");
-      return ResponseEntity.badRequest().build();
-    }
-
-    if (hashedGuidDob != null && checkRegistrationTokenAlreadyExistsForGuid(hashedGuidDob)) {
-      log.warn("The registration token already exists for the hashed guid dob.");
+    if (checkRegistrationTokenAlreadyExistsForGuid(hashedGuid, hashedGuidDob)) {
+      log.warn("The registration token already exists for the hashed guid or the hashed guid dob.");
       return ResponseEntity.badRequest().build();
     }
 
@@ -122,21 +157,21 @@ public ResponseEntity<RegistrationToken> generateRegistrationTokenByGuid(
   /**
    * This method generates a registration Token by a TeleTAN.
    *
-   * @param teleTan the TeleTan
+   * @param teleTan the already loaded and redeemable TeleTAN
+   * @param fake    flag for fake request
    * @return an {@link ResponseEntity}
    */
-  public ResponseEntity<RegistrationToken> generateRegistrationTokenByTeleTan(
-    String teleTan, String fake, TeleTanType teleTanType) {
-    if (checkRegistrationTokenAlreadyExistForTeleTan(teleTan)) {
+  public ResponseEntity<RegistrationToken> generateRegistrationTokenByTeleTan(VerificationTan teleTan, String fake) {
+    if (checkRegistrationTokenAlreadyExistForTeleTanHash(teleTan.getTanHash())) {
       log.warn("The registration token already exists for this TeleTAN.");
       return ResponseEntity.badRequest().build();
     } else {
       log.info("Start generating a new registration token for the given TeleTAN.");
       String registrationToken = generateRegistrationToken();
       VerificationAppSession appSession = generateAppSession(registrationToken);
-      appSession.setTeleTanHash(hashingService.hash(teleTan));
+      appSession.setTeleTanHash(teleTan.getTanHash());
       appSession.setSourceOfTrust(AppSessionSourceOfTrust.TELETAN);
-      appSession.setTeleTanType(teleTanType);
+      appSession.setTeleTanType(teleTan.getTeleTanType());
       saveAppSession(appSession);
       log.info("Returning the successfully created registration token.");
       return ResponseEntity.status(HttpStatus.CREATED).body(
@@ -151,46 +186,107 @@ public ResponseEntity<RegistrationToken> generateRegistrationTokenByTeleTan(
    */
   public void saveAppSession(VerificationAppSession appSession) {
     log.info("Start saveAppSession.");
-    appSessionRepository.save(appSession);
+    VerificationAppSession saved = appSessionRepository.save(appSession);
+    appSessionViewCache.invalidate(saved.getRegistrationTokenHash(), saved.getVersion());
+  }
+
+  /**
+   * Increments the tan counter of the app session and generates a TAN within the same transaction. The tan counter is
+   * incremented by a single conditional update, so concurrent requests can not exceed the configured maximum.
+   *
+   * @param registrationTokenHash the hash of the registration token of the app session
+   * @param sourceOfTrust         the source of trust for the TAN
+   * @param teleTanType           type of the teleTan
+   * @return Optional with the generated TAN, empty if the maximum of TANs for the app session is reached
+   */
+  @Transactional
+  public Optional<String> generateTanForAppSession(
+    String registrationTokenHash, TanSourceOfTrust sourceOfTrust, TeleTanType teleTanType) {
+    log.info("Start generateTanForAppSession.");
+    int tanCounterMax = verificationApplicationConfig.getAppsession().getTancountermax();
+    if (appSessionRepository.incrementTanCounter(registrationTokenHash, tanCounterMax, LocalDateTime.now()) == 0) {
+      return Optional.empty();
+    }
+    appSessionViewCache.invalidate(registrationTokenHash,
+      appSessionRepository.findVersionByRegistrationTokenHash(registrationTokenHash));
+    return Optional.of(tanService.generateVerificationTan(sourceOfTrust, teleTanType));
   }
 
   /**
-   * Get existing VerificationAppSession for Reg Token from {@link VerificationAppSessionRepository}.
+   * Get a read only view of the existing VerificationAppSession for Reg Token from
+   * {@link VerificationAppSessionRepository}. The view is not managed by the persistence context and is served from
+   * the {@link AppSessionViewCache}, if it is enabled.
    *
    * @param registrationToken the registrationToken
-   * @return Optional VerificationAppSession
+   * @return Optional VerificationAppSessionView
    */
-  public Optional<VerificationAppSession> getAppSessionByToken(String registrationToken) {
-    log.info("Start getAppSessionByToken.");
-    return appSessionRepository.findByRegistrationTokenHash(hashingService.hash(registrationToken));
+  public Optional<VerificationAppSessionView> getAppSessionViewByToken(String registrationToken) {
+    log.info("Start getAppSessionViewByToken.");
+    String registrationTokenHash = hashingService.hash(registrationToken);
+    return appSessionViewCache.get(registrationTokenHash,
+      () -> appSessionRepository.findViewByRegistrationTokenHash(registrationTokenHash));
   }
 
   /**
-   * Check for existing hashed GUID Token in the {@link VerificationAppSessionRepository}.
+   * Get a read only view of the existing VerificationAppSession for Reg Token from the read replica, if one is
+   * configured. App sessions which are not yet replicated, and lookups failing on the replica, are read from the
+   * primary. This method is meant for the polling of the test result, which does not modify the app session. The
+   * view is served from the {@link AppSessionViewCache}, if it is enabled.
    *
-   * @param hashedGuid the hashed guid
+   * @param registrationToken the registrationToken
+   * @return Optional VerificationAppSessionView
+   */
+  public Optional<VerificationAppSessionView> getAppSessionViewByTokenFromReplica(String registrationToken) {
+    log.info("Start getAppSessionViewByTokenFromReplica.");
+    String registrationTokenHash = hashingService.hash(registrationToken);
+    return appSessionViewCache.get(registrationTokenHash, () -> findAppSessionViewOnReplica(registrationTokenHash));
+  }
+
+  private Optional<VerificationAppSessionView> findAppSessionViewOnReplica(String registrationTokenHash) {
+    ReplicaRoutingDataSource replica = replicaRoutingDataSource.getIfAvailable();
+    if (replica != null && replica.isReplicaAvailable()) {
+      try {
+        Optional<VerificationAppSessionView> view = replica.readFromReplica(
+          () -> appSessionRepository.findViewByRegistrationTokenHash(registrationTokenHash));
+        if (view.isPresent()) {
+          return view;
+        }
+      } catch (DataAccessException e) {
+        log.warn("The app session lookup on the read replica failed.", e);
+      }
+    }
+    return appSessionRepository.findViewByRegistrationTokenHash(registrationTokenHash);
+  }
+
+  /**
+   * Check for existing hashed GUID Token in the {@link VerificationAppSessionRepository}. Both hashes are checked
+   * against the hashed guid and the hashed guid dob of the existing app sessions within a single query.
+   *
+   * @param hashedGuid    the hashed guid
+   * @param hashedGuidDob the hashed guid dob, may be null
    * @return flag for existing guid
    */
-  public boolean checkRegistrationTokenAlreadyExistsForGuid(String hashedGuid) {
+  public boolean checkRegistrationTokenAlreadyExistsForGuid(String hashedGuid, String hashedGuidDob) {
     log.info("Start checkRegistrationTokenAlreadyExistsForGuid.");
-    return appSessionRepository.findByHashedGuidOrHashedGuidDob(hashedGuid, hashedGuid).isPresent();
+    List<String> hashes = hashedGuidDob == null ? List.of(hashedGuid) : List.of(hashedGuid, hashedGuidDob);
+    return appSessionRepository.existsByHashedGuidInOrHashedGuidDobIn(hashes, hashes);
   }
 
   /**
    * Check for existing hashed TeleTAN in the {@link VerificationAppSessionRepository}.
    *
-   * @param teleTan the teleTAN
+   * @param teleTanHash the hash of the teleTAN
    * @return flag for existing teleTAN
    */
-  public boolean checkRegistrationTokenAlreadyExistForTeleTan(String teleTan) {
+  public boolean checkRegistrationTokenAlreadyExistForTeleTanHash(String teleTanHash) {
     log.info("Start checkTeleTanAlreadyExistForTeleTan.");
-    return appSessionRepository.findByTeleTanHash(hashingService.hash(teleTan)).isPresent();
+    return appSessionRepository.existsByTeleTanHash(teleTanHash);
   }
 
   private RegistrationToken getBackwardCompatibleRegistrationToken(String registrationToken, String fake) {
     if (fake == null) {
       return new RegistrationToken(registrationToken);
     }
-    return new RegistrationToken(registrationToken, RandomStringUtils.randomAlphanumeric(TOKEN_PADDING_LENGTH));
+    return new RegistrationToken(registrationToken, paddingProvider.getPadding(TOKEN_PADDING_LENGTH));
   }
 }
@@ -0,0 +1,113 @@
+/*-
+ * ---license-start
+ * Corona-Warn-App / cwa-verification
+ * ---
+ * Copyright (C) 2020 - 2022 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package app.coronawarn.verification.service;
+
+import app.coronawarn.verification.config.VerificationApplicationConfig;
+import app.coronawarn.verification.domain.VerificationAppSessionView;
+import app.coronawarn.verification.model.AppSessionSourceOfTrust;
+import app.coronawarn.verification.model.TeleTanType;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.function.Supplier;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+import org.springframework.stereotype.Component;
+
+/**
+ * This class represents the cache of the {@link VerificationAppSessionView}s keyed by the registration token hash,
+ * stored in the region "appsession" of the {@link VerificationCache}.
+ */
+@Component
+public class AppSessionViewCache {
+
+  static final String REGION = "appsession";
+
+  private final CacheRegion<CachedAppSessionView> region;
+
+  /**
+   * Constructor for the AppSessionViewCache.
+   *
+   * @param verificationApplicationConfig the {@link VerificationApplicationConfig} with the cache configuration
+   * @param verificationCache             the {@link VerificationCache} storing the app sessions
+   * @param meterRegistry                 the {@link MeterRegistry} the metrics are registered at
+   */
+  public AppSessionViewCache(@NonNull VerificationApplicationConfig verificationApplicationConfig,
+                             @NonNull VerificationCache verificationCache, @NonNull MeterRegistry meterRegistry) {
+    this.region = new CacheRegion<>(verificationCache, REGION, CachedAppSessionView.class,
+      CachedAppSessionView::getVersion, verificationApplicationConfig.getCache().getAppsession(), meterRegistry);
+  }
+
+  /**
+   * Returns the cached view of the app session or loads it with the given loader and caches it, if it is present.
+   *
+   * @param registrationTokenHash the hash of the registration token of the app session
+   * @param loader                the loader of the view, called on a cache miss
+   * @return Optional VerificationAppSessionView
+   */
+  public Optional<VerificationAppSessionView> get(
+    String registrationTokenHash, Supplier<Optional<VerificationAppSessionView>> loader) {
+    return region.get(registrationTokenHash, () -> loader.get().map(CachedAppSessionView::of))
+      .map(VerificationAppSessionView.class::cast);
+  }
+
+  /**
+   * Removes the app session from the cache and rejects views of older versions, which are loaded concurrently.
+   *
+   * @param registrationTokenHash the hash of the registration token of the app session
+   * @param version               the version of the modified app session
+   */
+  public void invalidate(String registrationTokenHash, long version) {
+    region.evict(registrationTokenHash, version);
+  }
+
+  /**
+   * Removes all app sessions from the cache.
+   */
+  public void invalidateAll() {
+    region.evictAll();
+  }
+
+  /**
+   * A detached copy of a {@link VerificationAppSessionView}.
+   */
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  static class CachedAppSessionView implements VerificationAppSessionView {
+    private LocalDateTime createdAt;
+    private String hashedGuid;
+    private String hashedGuidDob;
+    private String registrationTokenHash;
+    private int tanCounter;
+    private AppSessionSourceOfTrust sourceOfTrust;
+    private TeleTanType teleTanType;
+    private long version;
+
+    static CachedAppSessionView of(VerificationAppSessionView view) {
+      return new CachedAppSessionView(view.getCreatedAt(), view.getHashedGuid(), view.getHashedGuidDob(),
+        view.getRegistrationTokenHash(), view.getTanCounter(), view.getSourceOfTrust(), view.getTeleTanType(),
+        view.getVersion());
+    }
+  }
+}
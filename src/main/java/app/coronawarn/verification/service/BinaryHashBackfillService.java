@@ -0,0 +1,137 @@
+/*-
+ * ---license-start
+ * Corona-Warn-App / cwa-verification
+ * ---
+ * Copyright (C) 2020 - 2022 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package app.coronawarn.verification.service;
+
+import app.coronawarn.verification.domain.HashBytesConverter;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * This class copies the hex hashes of the existing rows into the binary hash columns, release 2 of the opt-in
+ * conversion of the hash columns. New and updated rows are already written to both columns by the triggers of
+ * release 1, so only the rows created before release 1 are converted.
+ *
+ * <p>The rows are converted in batches ordered by id. Each batch runs in its own short transaction and only updates
+ * a row, if its hex hash has not been changed in between, so the tables stay writable during the backfill.
+ */
+@Slf4j
+@Component
+@Profile("binary-hash-backfill")
+public class BinaryHashBackfillService {
+
+  private static final String SELECT_TANS = "SELECT id, tan_hash FROM tan"
+    + " WHERE id > ? AND tan_hash_bin IS NULL ORDER BY id LIMIT ?";
+  private static final String UPDATE_TAN = "UPDATE tan SET tan_hash_bin = ? WHERE id = ? AND tan_hash = ?";
+  private static final String SELECT_APP_SESSIONS =
+    "SELECT id, hashed_guid, hashed_guid_dob, registration_token_hash, tele_tan_hash FROM app_session"
+      + " WHERE id > ? AND ((hashed_guid IS NOT NULL AND hashed_guid_bin IS NULL)"
+      + " OR (hashed_guid_dob IS NOT NULL AND hashed_guid_dob_bin IS NULL)"
+      + " OR (registration_token_hash IS NOT NULL AND registration_token_hash_bin IS NULL)"
+      + " OR (tele_tan_hash IS NOT NULL AND tele_tan_hash_bin IS NULL)) ORDER BY id LIMIT ?";
+  private static final String UPDATE_APP_SESSION = "UPDATE app_session SET hashed_guid_bin = ?,"
+    + " hashed_guid_dob_bin = ?, registration_token_hash_bin = ?, tele_tan_hash_bin = ? WHERE id = ?"
+    + " AND hashed_guid IS NOT DISTINCT FROM ? AND hashed_guid_dob IS NOT DISTINCT FROM ?"
+    + " AND registration_token_hash IS NOT DISTINCT FROM ? AND tele_tan_hash IS NOT DISTINCT FROM ?";
+
+  private final HashBytesConverter converter = new HashBytesConverter();
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final int batchSize;
+  private long lastTanId;
+  private long lastAppSessionId;
+  private boolean completed;
+
+  /**
+   * Constructor for the BinaryHashBackfillService.
+   *
+   * @param jdbcTemplate       the template to read and update the rows
+   * @param transactionManager the transaction manager of the batches
+   * @param batchSize          the number of rows per table converted in one batch
+   */
+  public BinaryHashBackfillService(
+    JdbcTemplate jdbcTemplate,
+    PlatformTransactionManager transactionManager,
+    @Value("${binary-hash.backfill.batch-size}") int batchSize) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * This method converts the next batch of each table and logs once, when all existing rows are converted. The
+   * batches continue after the last converted id of this instance, so a completed backfill only costs a range scan
+   * of the primary keys.
+   */
+  @Scheduled(fixedDelayString = "${binary-hash.backfill.fixed-delay}")
+  @SchedulerLock(name = "BinaryHashBackfillService_backfill", lockAtLeastFor = "PT0S",
+    lockAtMostFor = "${binary-hash.backfill.locklimit}")
+  public void backfill() {
+    int tans = transactionTemplate.execute(status -> backfillTans());
+    int appSessions = transactionTemplate.execute(status -> backfillAppSessions());
+    boolean converted = tans > 0 || appSessions > 0;
+    if (!converted && !completed) {
+      log.info("Backfill of the binary hash columns completed, release 3 can be deployed.");
+    }
+    completed = !converted;
+  }
+
+  private int backfillTans() {
+    List<Object[]> rows = jdbcTemplate.query(SELECT_TANS,
+      (rs, rowNum) -> new Object[]{rs.getLong(1), rs.getString(2)}, lastTanId, batchSize);
+    if (rows.isEmpty()) {
+      return 0;
+    }
+    jdbcTemplate.batchUpdate(UPDATE_TAN, rows.stream()
+      .map(row -> new Object[]{converter.convertToDatabaseColumn((String) row[1]), row[0], row[1]})
+      .toList());
+    lastTanId = (long) rows.get(rows.size() - 1)[0];
+    log.debug("Converted {} tan rows up to id {}.", rows.size(), lastTanId);
+    return rows.size();
+  }
+
+  private int backfillAppSessions() {
+    List<Object[]> rows = jdbcTemplate.query(SELECT_APP_SESSIONS,
+      (rs, rowNum) -> new Object[]{rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4),
+        rs.getString(5)}, lastAppSessionId, batchSize);
+    if (rows.isEmpty()) {
+      return 0;
+    }
+    jdbcTemplate.batchUpdate(UPDATE_APP_SESSION, rows.stream()
+      .map(row -> new Object[]{
+        converter.convertToDatabaseColumn((String) row[1]),
+        converter.convertToDatabaseColumn((String) row[2]),
+        converter.convertToDatabaseColumn((String) row[3]),
+        converter.convertToDatabaseColumn((String) row[4]),
+        row[0], row[1], row[2], row[3], row[4]})
+      .toList());
+    lastAppSessionId = (long) rows.get(rows.size() - 1)[0];
+    log.debug("Converted {} app session rows up to id {}.", rows.size(), lastAppSessionId);
+    return rows.size();
+  }
+}
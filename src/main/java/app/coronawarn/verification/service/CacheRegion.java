@@ -0,0 +1,141 @@
+/*-
+ * ---license-start
+ * Corona-Warn-App / cwa-verification
+ * ---
+ * Copyright (C) 2020 - 2022 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package app.coronawarn.verification.service;
+
+import app.coronawarn.verification.config.VerificationApplicationConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import lombok.NonNull;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * This class represents a region of the {@link VerificationCache} holding values of one type. It loads missing values
+ * and counts the hits and misses of the region. The values are cached with their version, so a value loaded by any
+ * instance before a modification is rejected after the eviction of the modified version. Absent values are not
+ * cached.
+ *
+ * @param <T> the type of the cached values
+ */
+public class CacheRegion<T> {
+
+  static final String REQUESTS_METRIC = "verification.cache.requests";
+
+  private final VerificationCache cache;
+  private final String name;
+  private final Class<T> type;
+  private final ToLongFunction<T> version;
+  private final boolean enabled;
+  private final Duration ttl;
+
+  private final Counter hitCounter;
+  private final Counter missCounter;
+
+  /**
+   * Constructor for the CacheRegion that registers the hit rate metrics of the region.
+   *
+   * @param cache         the {@link VerificationCache} storing the values
+   * @param name          the name of the region
+   * @param type          the type of the cached values
+   * @param version       the version of a cached value, e.g. the version of its entity
+   * @param region        the configuration of the region
+   * @param meterRegistry the {@link MeterRegistry} the metrics are registered at
+   */
+  public CacheRegion(@NonNull VerificationCache cache, @NonNull String name, @NonNull Class<T> type,
+                     @NonNull ToLongFunction<T> version, @NonNull VerificationApplicationConfig.Cache.Region region,
+                     @NonNull MeterRegistry meterRegistry) {
+    this.cache = cache;
+    this.name = name;
+    this.type = type;
+    this.version = version;
+    this.enabled = region.isEnabled();
+    this.ttl = Duration.ofSeconds(region.getTtl());
+    this.hitCounter = counter(meterRegistry, name, "hit");
+    this.missCounter = counter(meterRegistry, name, "miss");
+  }
+
+  private static Counter counter(MeterRegistry meterRegistry, String region, String result) {
+    return Counter.builder(REQUESTS_METRIC)
+      .description("Number of cache requests by region and result")
+      .tag("region", region)
+      .tag("result", result)
+      .register(meterRegistry);
+  }
+
+  /**
+   * Returns the cached value of the key or loads it with the given loader and caches it, if it is present. If the
+   * region is disabled the loader is always called.
+   *
+   * @param key    the key of the value
+   * @param loader the loader of the value, called on a cache miss
+   * @return Optional with the value
+   */
+  public Optional<T> get(String key, Supplier<Optional<T>> loader) {
+    if (!enabled) {
+      return loader.get();
+    }
+    Optional<T> cached = cache.get(name, key, type);
+    if (cached.isPresent()) {
+      hitCounter.increment();
+      return cached;
+    }
+    missCounter.increment();
+    Optional<T> value = loader.get();
+    value.ifPresent(present -> cache.put(name, key, present, version.applyAsLong(present), ttl));
+    return value;
+  }
+
+  /**
+   * Removes the value of the key from the cache and rejects values of older versions than the modified one. If the
+   * modification is not yet committed, values of the modified version are accepted, because the readers only load
+   * them after the commit.
+   *
+   * @param key     the key of the value
+   * @param version the version of the modified value
+   */
+  public void evict(String key, long version) {
+    if (enabled) {
+      cache.evict(name, key, version, ttl);
+    }
+  }
+
+  /**
+   * Removes all values of the region from the cache, again after the completion of an active transaction. The values
+   * are not rejected by their version, so this is meant for values which are deleted, not modified.
+   */
+  public void evictAll() {
+    if (enabled) {
+      cache.evictAll(name);
+      if (TransactionSynchronizationManager.isSynchronizationActive()) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+          @Override
+          public void afterCompletion(int status) {
+            cache.evictAll(name);
+          }
+        });
+      }
+    }
+  }
+}
@@ -43,6 +43,8 @@ public class EntitiesCleanupService {
   private final VerificationApplicationConfig applicationConfig;
   private final VerificationAppSessionRepository appSessionRepository;
   private final VerificationTanRepository tanRepository;
+  private final AppSessionViewCache appSessionViewCache;
+  private final TestResultCache testResultCache;
 
   /**
    * All entities that are older than configured days get deleted.
@@ -55,9 +57,11 @@ public class EntitiesCleanupService {
   @Transactional
   public void cleanup() {
     log.info("cleanup execution");
-    appSessionRepository.deleteByCreatedAtBefore(LocalDateTime.now()
-      .minus(Period.ofDays(applicationConfig.getEntities().getCleanup().getDays())));
-    tanRepository.deleteByCreatedAtBefore(LocalDateTime.now()
-      .minus(Period.ofDays(applicationConfig.getEntities().getCleanup().getDays())));
+    LocalDateTime before = LocalDateTime.now()
+      .minus(Period.ofDays(applicationConfig.getEntities().getCleanup().getDays()));
+    appSessionRepository.deleteByCreatedAtBefore(before);
+    appSessionViewCache.invalidateAll();
+    testResultCache.invalidateAll();
+    tanRepository.deleteByCreatedAtBefore(before);
   }
 }
@@ -0,0 +1,188 @@
+/*-
+ * ---license-start
+ * Corona-Warn-App / cwa-verification
+ * ---
+ * Copyright (C) 2020 - 2022 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package app.coronawarn.verification.service;
+
+import app.coronawarn.verification.config.VerificationApplicationConfig;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.UUID;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * This class represents the entropy service, which provides random tokens, TANs and paddings. Every thread draws
+ * from its own {@link SecureRandom} instance of the configured algorithm through a buffered byte pool, so threads do
+ * not contend on a shared generator and the generator is only called once per pool refill.
+ */
+@Slf4j
+@Component
+public class EntropyService {
+
+  private static final char[] ALPHANUMERIC =
+    "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789".toCharArray();
+  private static final int BYTE_RANGE = 256;
+  private static final int UUID_LENGTH = 16;
+
+  private final String algorithm;
+  private final int poolSize;
+  private final ThreadLocal<EntropyPool> pools;
+
+  /**
+   * Constructor for the EntropyService that checks the configured algorithm is available.
+   *
+   * @param verificationApplicationConfig the {@link VerificationApplicationConfig} with the entropy configuration
+   */
+  public EntropyService(@NonNull VerificationApplicationConfig verificationApplicationConfig) {
+    this.algorithm = verificationApplicationConfig.getEntropy().getAlgorithm();
+    this.poolSize = Math.max(verificationApplicationConfig.getEntropy().getPoolSize(), UUID_LENGTH);
+    createSecureRandom();
+    this.pools = ThreadLocal.withInitial(() -> new EntropyPool(createSecureRandom(), poolSize));
+    log.info("Using the {} algorithm with a pool of {} bytes per thread for random values.", algorithm, poolSize);
+  }
+
+  private SecureRandom createSecureRandom() {
+    try {
+      return SecureRandom.getInstance(algorithm);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("The SecureRandom algorithm " + algorithm + " is not available", e);
+    }
+  }
+
+  /**
+   * Fills the given array with random bytes.
+   *
+   * @param bytes the array to fill
+   */
+  public void nextBytes(byte[] bytes) {
+    pools.get().nextBytes(bytes);
+  }
+
+  /**
+   * Returns a uniformly distributed random int between 0 (inclusive) and the bound (exclusive).
+   *
+   * @param bound the upper bound, must be positive
+   * @return the random int
+   */
+  public int nextInt(int bound) {
+    if (bound <= 0) {
+      throw new IllegalArgumentException("The bound must be positive");
+    }
+    return pools.get().nextInt(bound);
+  }
+
+  /**
+   * Creates a random (version 4) UUID.
+   *
+   * @return the random UUID
+   */
+  public UUID randomUuid() {
+    EntropyPool pool = pools.get();
+    long mostSigBits = pool.nextLong();
+    long leastSigBits = pool.nextLong();
+    // version 4
+    mostSigBits = (mostSigBits & 0xFFFFFFFFFFFF0FFFL) | 0x0000000000004000L;
+    // IETF variant
+    leastSigBits = (leastSigBits & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+    return new UUID(mostSigBits, leastSigBits);
+  }
+
+  /**
+   * Creates a random string of letters and digits.
+   *
+   * @param length the length of the string
+   * @return the random string
+   */
+  public String randomAlphanumeric(int length) {
+    EntropyPool pool = pools.get();
+    char[] chars = new char[length];
+    for (int i = 0; i < length; i++) {
+      chars[i] = ALPHANUMERIC[pool.nextInt(ALPHANUMERIC.length)];
+    }
+    return new String(chars);
+  }
+
+  /**
+   * A per thread pool of random bytes, refilled from the thread's {@link SecureRandom} whenever it is used up.
+   */
+  private static final class EntropyPool {
+
+    private final SecureRandom random;
+    private final byte[] buffer;
+    private int position;
+
+    EntropyPool(SecureRandom random, int size) {
+      this.random = random;
+      this.buffer = new byte[size];
+      this.position = size;
+    }
+
+    private void refillIfEmpty() {
+      if (position == buffer.length) {
+        random.nextBytes(buffer);
+        position = 0;
+      }
+    }
+
+    int nextByte() {
+      refillIfEmpty();
+      return buffer[position++] & 0xFF;
+    }
+
+    void nextBytes(byte[] bytes) {
+      int offset = 0;
+      while (offset < bytes.length) {
+        refillIfEmpty();
+        int count = Math.min(bytes.length - offset, buffer.length - position);
+        System.arraycopy(buffer, position, bytes, offset, count);
+        position += count;
+        offset += count;
+      }
+    }
+
+    long nextLong() {
+      long value = 0;
+      for (int i = 0; i < Long.BYTES; i++) {
+        value = (value << 8) | nextByte();
+      }
+      return value;
+    }
+
+    int nextInt(int bound) {
+      if (bound <= BYTE_RANGE) {
+        // reject the bytes above the largest multiple of the bound to keep the distribution uniform
+        int limit = BYTE_RANGE - BYTE_RANGE % bound;
+        int value;
+        do {
+          value = nextByte();
+        } while (value >= limit);
+        return value % bound;
+      }
+      int limit = Integer.MAX_VALUE - Integer.MAX_VALUE % bound;
+      int value;
+      do {
+        value = nextByte() << 23 | nextByte() << 15 | nextByte() << 7 | nextByte() >>> 1;
+      } while (value >= limit);
+      return value % bound;
+    }
+  }
+}
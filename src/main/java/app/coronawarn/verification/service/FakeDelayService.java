@@ -21,6 +21,11 @@
 package app.coronawarn.verification.service;
 
 import app.coronawarn.verification.config.VerificationApplicationConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
 import org.apache.commons.math3.distribution.PoissonDistribution;
 import org.springframework.stereotype.Component;
 
@@ -30,6 +35,22 @@
 @Component
 public class FakeDelayService {
 
+  /**
+   * The name of the gauges of the moving averages.
+   */
+  public static final String AVERAGE_METRIC = "verification.fakedelay.average";
+  /**
+   * The name of the timers of the applied real and fake delays.
+   */
+  public static final String APPLIED_METRIC = "verification.fakedelay.applied";
+  /**
+   * The name of the timer of the lateness of the scheduled completions.
+   */
+  public static final String LATENESS_METRIC = "verification.fakedelay.lateness";
+
+  private static final String ENDPOINT_TAG = "endpoint";
+  private static final String KIND_TAG = "kind";
+
   private final long movingAverageSampleSize;
   private long fakeDelayTest;
 
@@ -37,14 +58,60 @@ public class FakeDelayService {
 
   private long fakeDelayToken;
 
+  private final Timer realDelayTanTimer;
+  private final Timer realDelayTestTimer;
+  private final Timer realDelayTokenTimer;
+  private final Timer fakeDelayTanTimer;
+  private final Timer fakeDelayTestTimer;
+  private final Timer fakeDelayTokenTimer;
+  private final Timer latenessTimer;
+
   /**
-   * Constructor for the FakeDelayService.
+   * Constructor for the FakeDelayService. The moving averages are registered as gauges, the applied delays and the
+   * lateness of the scheduled completions as timers.
    */
-  public FakeDelayService(VerificationApplicationConfig applicationConfig) {
+  public FakeDelayService(VerificationApplicationConfig applicationConfig, MeterRegistry meterRegistry) {
     this.fakeDelayTest = applicationConfig.getInitialFakeDelayMilliseconds();
     this.fakeDelayTan = applicationConfig.getInitialFakeDelayMilliseconds();
     this.fakeDelayToken = applicationConfig.getInitialFakeDelayMilliseconds();
     this.movingAverageSampleSize = applicationConfig.getFakeDelayMovingAverageSamples();
+    averageGauge(meterRegistry, "tan", FakeDelayService::getFakeTanDelayInSeconds);
+    averageGauge(meterRegistry, "test", FakeDelayService::getFakeTestDelayInSeconds);
+    averageGauge(meterRegistry, "token", FakeDelayService::getFakeTokenDelayInSeconds);
+    this.realDelayTanTimer = appliedTimer(meterRegistry, "tan", "real");
+    this.realDelayTestTimer = appliedTimer(meterRegistry, "test", "real");
+    this.realDelayTokenTimer = appliedTimer(meterRegistry, "token", "real");
+    this.fakeDelayTanTimer = appliedTimer(meterRegistry, "tan", "fake");
+    this.fakeDelayTestTimer = appliedTimer(meterRegistry, "test", "fake");
+    this.fakeDelayTokenTimer = appliedTimer(meterRegistry, "token", "fake");
+    this.latenessTimer = Timer.builder(LATENESS_METRIC)
+      .description("Lateness of the scheduled completions of delayed responses")
+      .publishPercentiles(0.5, 0.9, 0.99)
+      .publishPercentileHistogram()
+      .register(meterRegistry);
+  }
+
+  private void averageGauge(MeterRegistry meterRegistry, String endpoint, ToDoubleFunction<FakeDelayService> value) {
+    Gauge.builder(AVERAGE_METRIC, this, value)
+      .description("Moving average of the real request duration, which is the mean of the fake delay")
+      .baseUnit("seconds")
+      .tag(ENDPOINT_TAG, endpoint)
+      .register(meterRegistry);
+  }
+
+  private static Timer appliedTimer(MeterRegistry meterRegistry, String endpoint, String kind) {
+    return Timer.builder(APPLIED_METRIC)
+      .description("Delays applied to the responses of real and fake requests")
+      .tag(ENDPOINT_TAG, endpoint)
+      .tag(KIND_TAG, kind)
+      .publishPercentiles(0.5, 0.9, 0.99)
+      .publishPercentileHistogram()
+      .register(meterRegistry);
+  }
+
+  private static long record(Timer timer, long delay) {
+    timer.record(Math.max(delay, 0), TimeUnit.MILLISECONDS);
+    return delay;
   }
 
   /**
@@ -132,7 +199,7 @@ public long getLongestJitter() {
    * @return delay for TAN
    */
   public long realDelayTan() {
-    return (getLongestJitter() - getJitteredFakeTanDelay());
+    return record(realDelayTanTimer, getLongestJitter() - getJitteredFakeTanDelay());
   }
 
   /**
@@ -140,7 +207,7 @@ public long realDelayTan() {
    * @return delay for RegistrationToken
    */
   public long realDelayToken() {
-    return (getLongestJitter() - getJitteredFakeTokenDelay());
+    return record(realDelayTokenTimer, getLongestJitter() - getJitteredFakeTokenDelay());
   }
 
   /**
@@ -148,6 +215,44 @@ public long realDelayToken() {
    * @return delay for TestResult
    */
   public long realDelayTest() {
-    return (getLongestJitter() - getJitteredFakeTestDelay());
+    return record(realDelayTestTimer, getLongestJitter() - getJitteredFakeTestDelay());
+  }
+
+  /**
+   * Returns the longest fake delay jittered in milliseconds for a fake Tan request.
+   * @return delay for a fake TAN
+   */
+  public long fakeDelayTan() {
+    return record(fakeDelayTanTimer, getLongestJitter());
+  }
+
+  /**
+   * Returns the longest fake delay jittered in milliseconds for a fake RegistrationToken request.
+   * @return delay for a fake RegistrationToken
+   */
+  public long fakeDelayToken() {
+    return record(fakeDelayTokenTimer, getLongestJitter());
+  }
+
+  /**
+   * Returns the longest fake delay jittered in milliseconds for a fake TestResult request.
+   * @return delay for a fake TestResult
+   */
+  public long fakeDelayTest() {
+    return record(fakeDelayTestTimer, getLongestJitter());
+  }
+
+  /**
+   * Wraps a task, which is scheduled with the given delay, to record how late it is executed.
+   * @param task  the scheduled task
+   * @param delay the delay of the task in milliseconds
+   * @return the task recording its lateness
+   */
+  public Runnable withLateness(Runnable task, long delay) {
+    long due = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(delay, 0));
+    return () -> {
+      latenessTimer.record(Math.max(System.nanoTime() - due, 0), TimeUnit.NANOSECONDS);
+      task.run();
+    };
   }
 }
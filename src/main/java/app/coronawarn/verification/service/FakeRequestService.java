@@ -22,96 +22,109 @@
 
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
-import app.coronawarn.verification.model.LabTestResult;
 import app.coronawarn.verification.model.RegistrationToken;
-import app.coronawarn.verification.model.RegistrationTokenRequest;
 import app.coronawarn.verification.model.Tan;
 import app.coronawarn.verification.model.TestResult;
-import jakarta.validation.Valid;
-import java.time.LocalDateTime;
-import java.time.ZoneOffset;
-import java.util.UUID;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Supplier;
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.RandomStringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
-import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.context.request.async.DeferredResult;
-
 
 /**
- * This Service generates the fake responses for the Endpoints.
+ * This Service generates the fake responses for the Endpoints. The response bodies are pre-serialized by the
+ * {@link FakeResponseTemplates}, so fake requests do not pass through Jackson.
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class FakeRequestService {
 
-  @NonNull
   private final FakeDelayService fakeDelayService;
 
-  private final ScheduledExecutorService scheduledExecutor = Executors.newScheduledThreadPool(4);
-
-  private static final Integer TEST_RESPONSE_PADDING_LENGTH = 45;
-  private static final Integer TESTRESULT_RESULT_PADDING = 1;
-  private static final Integer TAN_RESPONSE_PADDING_LENGTH = 15;
+  private final FakeResponseTemplates fakeResponseTemplates;
 
+  private final ScheduledExecutorService scheduledExecutor;
 
   /**
-   * This method generates a fake transaction number by a Registration Token, if the state of the COVID-19 lab-test is
-   * positive.
+   * Constructor for the FakeRequestService scheduling the fake responses on its own thread pool.
    *
-   * @param registrationToken generated by a hashed guid or a teleTAN. {@link RegistrationToken}
-   * @return A generated transaction number {@link Tan}.
+   * @param fakeDelayService      the {@link FakeDelayService} providing the fake delays
+   * @param fakeResponseTemplates the {@link FakeResponseTemplates} providing the pre-serialized response bodies
    */
-  public DeferredResult<ResponseEntity<Tan>> generateTan(@Valid @RequestBody RegistrationToken registrationToken) {
-    long delay = fakeDelayService.getLongestJitter();
-    DeferredResult<ResponseEntity<Tan>> deferredResult = new DeferredResult<>();
-    Tan returnTan = new Tan(UUID.randomUUID().toString(),
-      RandomStringUtils.randomAlphanumeric(TAN_RESPONSE_PADDING_LENGTH));
-    scheduledExecutor.schedule(() -> deferredResult.setResult(ResponseEntity.status(HttpStatus.CREATED)
-      .body(returnTan)), delay, MILLISECONDS);
-    return deferredResult;
+  @Autowired
+  public FakeRequestService(@NonNull FakeDelayService fakeDelayService,
+                            @NonNull FakeResponseTemplates fakeResponseTemplates) {
+    this(fakeDelayService, fakeResponseTemplates, Executors.newScheduledThreadPool(4));
   }
 
+  /**
+   * Constructor for the FakeRequestService scheduling the fake responses on the given executor, which lets tests
+   * control when the fake responses are written.
+   *
+   * @param fakeDelayService      the {@link FakeDelayService} providing the fake delays
+   * @param fakeResponseTemplates the {@link FakeResponseTemplates} providing the pre-serialized response bodies
+   * @param scheduledExecutor     the executor the fake responses are scheduled on
+   */
+  public FakeRequestService(@NonNull FakeDelayService fakeDelayService,
+                            @NonNull FakeResponseTemplates fakeResponseTemplates,
+                            @NonNull ScheduledExecutorService scheduledExecutor) {
+    this.fakeDelayService = fakeDelayService;
+    this.fakeResponseTemplates = fakeResponseTemplates;
+    this.scheduledExecutor = scheduledExecutor;
+  }
 
   /**
-   * This method generates a fake registrationToken by a hashed guid or a teleTAN.
+   * This method writes a fake {@link Tan} response to the servlet response of the async context after the fake delay.
    *
-   * @param request {@link RegistrationTokenRequest}
-   * @return RegistrationToken - the created registration token {@link RegistrationToken}
+   * @param asyncContext the started {@link AsyncContext} of the fake request
    */
-  public DeferredResult<ResponseEntity<RegistrationToken>> generateRegistrationToken(
-    @RequestBody @Valid RegistrationTokenRequest request) {
-    long delay = fakeDelayService.getLongestJitter();
-    DeferredResult<ResponseEntity<RegistrationToken>> deferredResult = new DeferredResult<>();
-    scheduledExecutor.schedule(() -> deferredResult.setResult(ResponseEntity.status(HttpStatus.CREATED)
-      .body(new RegistrationToken(UUID.randomUUID().toString(),
-        RandomStringUtils.randomAlphanumeric(TESTRESULT_RESULT_PADDING)))), delay, MILLISECONDS);
-    return deferredResult;
+  public void writeTan(AsyncContext asyncContext) {
+    write(asyncContext, HttpStatus.CREATED, fakeResponseTemplates::tan, fakeDelayService.fakeDelayTan());
   }
 
+  /**
+   * This method writes a fake {@link RegistrationToken} response to the servlet response of the async context after
+   * the fake delay.
+   *
+   * @param asyncContext the started {@link AsyncContext} of the fake request
+   */
+  public void writeRegistrationToken(AsyncContext asyncContext) {
+    write(asyncContext, HttpStatus.CREATED, fakeResponseTemplates::registrationToken,
+      fakeDelayService.fakeDelayToken());
+  }
 
   /**
-   * Returns the fake test status of the COVID-19 test.
+   * This method writes a fake {@link TestResult} response to the servlet response of the async context after the fake
+   * delay.
    *
-   * @param registrationToken generated by a hashed guid {@link RegistrationToken}
-   * @return the test result / status of the COVID-19 test, which can be POSITIVE, NEGATIVE, INVALID, PENDING or FAILED
-   *     and will always be POSITIVE for a TeleTan.
+   * @param asyncContext the started {@link AsyncContext} of the fake request
    */
-  public DeferredResult<ResponseEntity<TestResult>> getTestState(
-    @Valid @RequestBody RegistrationToken registrationToken) {
-    long delay = fakeDelayService.getLongestJitter();
-    DeferredResult<ResponseEntity<TestResult>> deferredResult = new DeferredResult<>();
-    scheduledExecutor.schedule(() -> deferredResult.setResult(ResponseEntity
-      .ok(new TestResult(LabTestResult.POSITIVE.getTestResult(), LocalDateTime.now().toEpochSecond(ZoneOffset.UTC),
-        null, RandomStringUtils.randomAlphanumeric(TEST_RESPONSE_PADDING_LENGTH)))), delay, MILLISECONDS);
-    return deferredResult;
+  public void writeTestState(AsyncContext asyncContext) {
+    write(asyncContext, HttpStatus.OK, fakeResponseTemplates::testResult, fakeDelayService.fakeDelayTest());
+  }
+
+  private void write(AsyncContext asyncContext, HttpStatus status, Supplier<byte[]> body, long delay) {
+    scheduledExecutor.schedule(fakeDelayService.withLateness(() -> {
+      HttpServletResponse response = (HttpServletResponse) asyncContext.getResponse();
+      try {
+        byte[] bytes = body.get();
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(bytes.length);
+        response.getOutputStream().write(bytes);
+      } catch (IOException e) {
+        log.warn("The fake response could not be written.");
+      } finally {
+        asyncContext.complete();
+      }
+    }, delay), delay, MILLISECONDS);
   }
 
 }
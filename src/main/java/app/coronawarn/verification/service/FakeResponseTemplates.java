@@ -0,0 +1,151 @@
+/*-
+ * ---license-start
+ * Corona-Warn-App / cwa-verification
+ * ---
+ * Copyright (C) 2020 - 2022 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package app.coronawarn.verification.service;
+
+import app.coronawarn.verification.model.LabTestResult;
+import app.coronawarn.verification.model.RegistrationToken;
+import app.coronawarn.verification.model.Tan;
+import app.coronawarn.verification.model.TestResult;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * This class represents the pre-serialized JSON responses for fake requests. The responses have exactly the shape
+ * Jackson produces for the {@link Tan}, {@link RegistrationToken} and {@link TestResult} models, but only the random
+ * token and padding bytes are written per request instead of serializing a model object.
+ */
+@Component
+@RequiredArgsConstructor
+public class FakeResponseTemplates {
+
+  /**
+   * The length of the padding of a fake {@link Tan} response.
+   */
+  public static final int TAN_PADDING_LENGTH = 15;
+  /**
+   * The length of the padding of a fake {@link RegistrationToken} response.
+   */
+  public static final int REGISTRATION_TOKEN_PADDING_LENGTH = 1;
+  /**
+   * The length of the padding of a fake {@link TestResult} response.
+   */
+  public static final int TEST_RESULT_PADDING_LENGTH = 45;
+
+  private static final int UUID_LENGTH = 36;
+  private static final byte[] HEX_DIGITS = ascii("0123456789abcdef");
+
+  private static final byte[] TAN_PREFIX = ascii("{\"tan\":\"");
+  private static final byte[] REGISTRATION_TOKEN_PREFIX = ascii("{\"registrationToken\":\"");
+  private static final byte[] TEST_RESULT_PREFIX =
+    ascii("{\"testResult\":" + LabTestResult.POSITIVE.getTestResult() + ",\"sc\":");
+  private static final byte[] STRING_PADDING_PREFIX = ascii("\",\"responsePadding\":\"");
+  private static final byte[] NUMBER_PADDING_PREFIX = ascii(",\"responsePadding\":\"");
+  private static final byte[] SUFFIX = ascii("\"}");
+
+  @NonNull
+  private final EntropyService entropyService;
+
+  @NonNull
+  private final PaddingProvider paddingProvider;
+
+  /**
+   * This method creates the JSON of a fake {@link Tan} with a random TAN and padding.
+   *
+   * @return the serialized fake TAN
+   */
+  public byte[] tan() {
+    return uuidWithPadding(TAN_PREFIX, TAN_PADDING_LENGTH);
+  }
+
+  /**
+   * This method creates the JSON of a fake {@link RegistrationToken} with a random token and padding.
+   *
+   * @return the serialized fake registration token
+   */
+  public byte[] registrationToken() {
+    return uuidWithPadding(REGISTRATION_TOKEN_PREFIX, REGISTRATION_TOKEN_PADDING_LENGTH);
+  }
+
+  /**
+   * This method creates the JSON of a positive fake {@link TestResult} with the current time and a random padding.
+   *
+   * @return the serialized fake test result
+   */
+  public byte[] testResult() {
+    byte[] sc = ascii(Long.toString(LocalDateTime.now().toEpochSecond(ZoneOffset.UTC)));
+    byte[] json = new byte[TEST_RESULT_PREFIX.length + sc.length + NUMBER_PADDING_PREFIX.length
+      + TEST_RESULT_PADDING_LENGTH + SUFFIX.length];
+    int position = append(json, 0, TEST_RESULT_PREFIX);
+    position = append(json, position, sc);
+    position = append(json, position, NUMBER_PADDING_PREFIX);
+    paddingProvider.writePadding(json, position, TEST_RESULT_PADDING_LENGTH);
+    append(json, position + TEST_RESULT_PADDING_LENGTH, SUFFIX);
+    return json;
+  }
+
+  private byte[] uuidWithPadding(byte[] prefix, int paddingLength) {
+    byte[] json = new byte[prefix.length + UUID_LENGTH + STRING_PADDING_PREFIX.length + paddingLength + SUFFIX.length];
+    int position = append(json, 0, prefix);
+    position = appendUuid(json, position, entropyService.randomUuid());
+    position = append(json, position, STRING_PADDING_PREFIX);
+    paddingProvider.writePadding(json, position, paddingLength);
+    append(json, position + paddingLength, SUFFIX);
+    return json;
+  }
+
+  private static int append(byte[] target, int position, byte[] bytes) {
+    System.arraycopy(bytes, 0, target, position, bytes.length);
+    return position + bytes.length;
+  }
+
+  /**
+   * Writes the UUID in the format of {@link UUID#toString()}.
+   */
+  private static int appendUuid(byte[] target, int position, UUID uuid) {
+    position = appendHex(target, position, uuid.getMostSignificantBits() >>> 32, 8);
+    target[position++] = '-';
+    position = appendHex(target, position, uuid.getMostSignificantBits() >>> 16, 4);
+    target[position++] = '-';
+    position = appendHex(target, position, uuid.getMostSignificantBits(), 4);
+    target[position++] = '-';
+    position = appendHex(target, position, uuid.getLeastSignificantBits() >>> 48, 4);
+    target[position++] = '-';
+    return appendHex(target, position, uuid.getLeastSignificantBits(), 12);
+  }
+
+  private static int appendHex(byte[] target, int position, long value, int digits) {
+    for (int i = digits - 1; i >= 0; i--) {
+      target[position + i] = HEX_DIGITS[(int) (value & 0x0F)];
+      value >>>= 4;
+    }
+    return position + digits;
+  }
+
+  private static byte[] ascii(String value) {
+    return value.getBytes(StandardCharsets.US_ASCII);
+  }
+}
@@ -20,6 +20,10 @@
 
 package app.coronawarn.verification.service;
 
+import app.coronawarn.verification.config.RequestMetrics;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
+import java.security.MessageDigest;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import lombok.extern.slf4j.Slf4j;
@@ -36,6 +40,17 @@ public class HashingService {
   private static final String GUID_HASH_PATTERN = "^[0-9A-Fa-f]{64}$";
   private static final Pattern PATTERN = Pattern.compile(GUID_HASH_PATTERN);
 
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+  /**
+   * The check digits for each value of the first nibble of the hash. The upper case hex digit is used, but '0' and '1'
+   * are replaced by 'G' and 'H' to avoid confusion with 'O' and 'I'.
+   */
+  private static final String[] CHECK_DIGITS = "GH23456789ABCDEF".chars()
+    .mapToObj(Character::toString)
+    .toArray(String[]::new);
+
+  private static final ThreadLocal<HashingEngine> ENGINE = ThreadLocal.withInitial(HashingEngine::new);
+
   /**
    * Calculates the SHA-256 digest and returns the value as a hex string.
    *
@@ -44,7 +59,10 @@ public class HashingService {
    */
   public String hash(String toHash) {
     log.debug("Hash process has been called.");
-    return DigestUtils.sha256Hex(toHash);
+    long start = System.nanoTime();
+    String hash = ENGINE.get().hashHex(toHash);
+    RequestMetrics.addPhaseTime(RequestMetrics.Phase.HASHING, System.nanoTime() - start);
+    return hash;
   }
 
   /**
@@ -54,8 +72,11 @@ public String hash(String toHash) {
    * @return the check digit
    */
   public String getCheckDigit(String toHash) {
-    log.info("get check digit process has been called.");
-    return DigestUtils.sha256Hex(toHash).substring(0, 1).toUpperCase().replace("0", "G").replace("1", "H");
+    log.debug("get check digit process has been called.");
+    long start = System.nanoTime();
+    int firstNibble = ENGINE.get().firstNibble(toHash);
+    RequestMetrics.addPhaseTime(RequestMetrics.Phase.HASHING, System.nanoTime() - start);
+    return CHECK_DIGITS[firstNibble];
   }
 
   /**
@@ -72,4 +93,64 @@ public boolean isHashValid(String toValidate) {
     }
     return matches;
   }
+
+  /**
+   * The per thread hashing state. The message digest and all buffers are reused for every hash calculated by the
+   * thread, so only the resulting string is allocated.
+   */
+  private static final class HashingEngine {
+
+    private static final int HASH_LENGTH = 32;
+
+    private final MessageDigest digest = DigestUtils.getSha256Digest();
+    private final byte[] hash = new byte[HASH_LENGTH];
+    private final char[] hex = new char[HASH_LENGTH * 2];
+    private byte[] input = new byte[128];
+
+    String hashHex(String toHash) {
+      digest(toHash);
+      for (int i = 0; i < HASH_LENGTH; i++) {
+        hex[i * 2] = HEX_DIGITS[(hash[i] >> 4) & 0x0F];
+        hex[i * 2 + 1] = HEX_DIGITS[hash[i] & 0x0F];
+      }
+      return new String(hex);
+    }
+
+    int firstNibble(String toHash) {
+      digest(toHash);
+      return (hash[0] >> 4) & 0x0F;
+    }
+
+    private void digest(String toHash) {
+      int length = toHash.length();
+      if (isAscii(toHash, length)) {
+        digest.update(input, 0, length);
+      } else {
+        digest.update(toHash.getBytes(StandardCharsets.UTF_8));
+      }
+      try {
+        digest.digest(hash, 0, HASH_LENGTH);
+      } catch (DigestException e) {
+        throw new IllegalStateException("Failed to calculate the SHA-256 digest", e);
+      }
+    }
+
+    /**
+     * Copies the string into the reused input buffer, as long as it only contains ASCII characters, which are encoded
+     * with the same single byte in UTF-8.
+     */
+    private boolean isAscii(String toHash, int length) {
+      if (input.length < length) {
+        input = new byte[length];
+      }
+      for (int i = 0; i < length; i++) {
+        char c = toHash.charAt(i);
+        if (c >= 0x80) {
+          return false;
+        }
+        input[i] = (byte) c;
+      }
+      return true;
+    }
+  }
 }
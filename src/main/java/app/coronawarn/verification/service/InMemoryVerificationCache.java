@@ -0,0 +1,158 @@
+/*-
+ * ---license-start
+ * Corona-Warn-App / cwa-verification
+ * ---
+ * Copyright (C) 2020 - 2022 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package app.coronawarn.verification.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Optional;
+import lombok.NonNull;
+
+/**
+ * This class represents the {@link VerificationCache} within the memory of the instance. The entries are held by a
+ * concurrent Caffeine cache bounded by the maximum size, so lookups of different keys do not block each other. The
+ * cached values are returned as they are, so they must not be modified.
+ */
+public class InMemoryVerificationCache implements VerificationCache {
+
+  static final String EVICTIONS_METRIC = "verification.cache.evictions";
+  static final String SIZE_METRIC = "verification.cache.size";
+
+  private final Ticker ticker;
+  private final Cache<EntryKey, Entry> entries;
+
+  /**
+   * Constructor for the InMemoryVerificationCache that registers the size and eviction metrics.
+   *
+   * @param maxSize       the maximum number of entries of all regions
+   * @param meterRegistry the {@link MeterRegistry} the metrics are registered at
+   */
+  public InMemoryVerificationCache(int maxSize, @NonNull MeterRegistry meterRegistry) {
+    this(maxSize, meterRegistry, Ticker.systemTicker());
+  }
+
+  InMemoryVerificationCache(int maxSize, @NonNull MeterRegistry meterRegistry, @NonNull Ticker ticker) {
+    this.ticker = ticker;
+    Counter expiredCounter = counter(meterRegistry, "expired");
+    Counter sizeEvictedCounter = counter(meterRegistry, "size");
+    this.entries = Caffeine.newBuilder()
+      .maximumSize(maxSize)
+      .expireAfter(new EntryExpiry())
+      .evictionListener((EntryKey key, Entry entry, RemovalCause cause) -> {
+        if (cause == RemovalCause.EXPIRED) {
+          expiredCounter.increment();
+        } else if (cause == RemovalCause.SIZE) {
+          sizeEvictedCounter.increment();
+        }
+      })
+      .executor(Runnable::run)
+      .ticker(ticker)
+      .build();
+    Gauge.builder(SIZE_METRIC, this, InMemoryVerificationCache::size)
+      .description("Number of entries of the memory cache")
+      .register(meterRegistry);
+  }
+
+  private static Counter counter(MeterRegistry meterRegistry, String reason) {
+    return Counter.builder(EVICTIONS_METRIC)
+      .description("Number of memory cache evictions by reason")
+      .tag("reason", reason)
+      .register(meterRegistry);
+  }
+
+  @Override
+  public <T> Optional<T> get(String region, String key, Class<T> type) {
+    Entry entry = entries.getIfPresent(new EntryKey(region, key));
+    return entry == null || entry.value() == null ? Optional.empty() : Optional.of(type.cast(entry.value()));
+  }
+
+  @Override
+  public void put(String region, String key, Object value, long version, Duration ttl) {
+    putIfNotOlder(new EntryKey(region, key), new Entry(value, version, ticker.read() + ttl.toNanos()));
+  }
+
+  @Override
+  public void evict(String region, String key, long version, Duration ttl) {
+    putIfNotOlder(new EntryKey(region, key), new Entry(null, version, ticker.read() + ttl.toNanos()));
+  }
+
+  private void putIfNotOlder(EntryKey entryKey, Entry entry) {
+    entries.asMap().compute(entryKey,
+      (ignored, current) -> current != null && current.version() > entry.version() ? current : entry);
+  }
+
+  @Override
+  public void evictAll(String region) {
+    entries.asMap().keySet().removeIf(entryKey -> entryKey.region().equals(region));
+  }
+
+  /**
+   * Returns the approximate number of entries of all regions.
+   *
+   * @return the number of entries
+   */
+  public long size() {
+    return entries.estimatedSize();
+  }
+
+  /**
+   * Performs the pending maintenance of the cache, e.g. the removal of expired entries.
+   */
+  void cleanUp() {
+    entries.cleanUp();
+  }
+
+  private record EntryKey(String region, String key) {
+  }
+
+  /**
+   * An entry of the cache, without a value if it marks an eviction.
+   */
+  private record Entry(Object value, long version, long expiresAt) {
+  }
+
+  /**
+   * Expires each entry at the end of its own time to live.
+   */
+  private static class EntryExpiry implements Expiry<EntryKey, Entry> {
+
+    @Override
+    public long expireAfterCreate(EntryKey key, Entry entry, long currentTime) {
+      return Math.max(0, entry.expiresAt() - currentTime);
+    }
+
+    @Override
+    public long expireAfterUpdate(EntryKey key, Entry entry, long currentTime, long currentDuration) {
+      return Math.max(0, entry.expiresAt() - currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(EntryKey key, Entry entry, long currentTime, long currentDuration) {
+      return currentDuration;
+    }
+  }
+}
@@ -0,0 +1,106 @@
+/*-
+ * ---license-start
+ * Corona-Warn-App / cwa-verification
+ * ---
+ * Copyright (C) 2020 - 2022 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package app.coronawarn.verification.service;
+
+import app.coronawarn.verification.config.VerificationApplicationConfig;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * This class represents the padding provider for the responses. The padding only hides the length of the response
+ * and does not need to be secret, so it is served as a slice of a random buffer, which is refreshed periodically
+ * instead of generating a new random string for every response.
+ */
+@Slf4j
+@Component
+public class PaddingProvider {
+
+  private final EntropyService entropyService;
+  private final int bufferLength;
+
+  private volatile byte[] buffer;
+
+  /**
+   * Constructor for the PaddingProvider that fills the initial padding buffer.
+   *
+   * @param verificationApplicationConfig the {@link VerificationApplicationConfig} with the padding configuration
+   * @param entropyService                the {@link EntropyService} filling the padding buffer
+   */
+  public PaddingProvider(
+    @NonNull VerificationApplicationConfig verificationApplicationConfig,
+    @NonNull EntropyService entropyService
+  ) {
+    this.entropyService = entropyService;
+    this.bufferLength = verificationApplicationConfig.getPadding().getBufferLength();
+    refresh();
+  }
+
+  /**
+   * Replaces the padding buffer with new random characters.
+   */
+  @Scheduled(
+    fixedRateString = "${padding.refresh-rate}"
+  )
+  public void refresh() {
+    buffer = entropyService.randomAlphanumeric(bufferLength).getBytes(StandardCharsets.US_ASCII);
+    log.debug("The padding buffer has been refreshed.");
+  }
+
+  /**
+   * Returns a padding of random letters and digits.
+   *
+   * @param length the length of the padding
+   * @return the padding
+   */
+  public String getPadding(int length) {
+    byte[] current = buffer;
+    if (length > current.length) {
+      return entropyService.randomAlphanumeric(length);
+    }
+    return new String(current, offset(current, length), length, StandardCharsets.US_ASCII);
+  }
+
+  /**
+   * Writes a padding of random letters and digits as ASCII bytes into the target array.
+   *
+   * @param target   the array the padding is written to
+   * @param position the position of the padding in the target array
+   * @param length   the length of the padding
+   */
+  public void writePadding(byte[] target, int position, int length) {
+    byte[] current = buffer;
+    if (length > current.length) {
+      byte[] padding = entropyService.randomAlphanumeric(length).getBytes(StandardCharsets.US_ASCII);
+      System.arraycopy(padding, 0, target, position, length);
+      return;
+    }
+    System.arraycopy(current, offset(current, length), target, position, length);
+  }
+
+  private static int offset(byte[] current, int length) {
+    return ThreadLocalRandom.current().nextInt(current.length - length + 1);
+  }
+}
@@ -0,0 +1,169 @@
+/*-
+ * ---license-start
+ * Corona-Warn-App / cwa-verification
+ * ---
+ * Copyright (C) 2020 - 2022 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package app.coronawarn.verification.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+/**
+ * This class represents the {@link VerificationCache} on a redis server shared by all instances. The values are
+ * stored as JSON prefixed by their version, an eviction marker has no JSON. The version check and the update of an
+ * entry run as one script on the redis server, so concurrent instances can not replace a newer version. Failing redis
+ * commands are logged and counted, a failing lookup is treated as a miss.
+ */
+@Slf4j
+public class RedisVerificationCache implements VerificationCache {
+
+  static final String ERRORS_METRIC = "verification.cache.errors";
+
+  private static final int EVICT_BATCH_SIZE = 500;
+  private static final char VERSION_SEPARATOR = ':';
+
+  /**
+   * Sets the key to the versioned value with the time to live in milliseconds, unless it holds a newer version.
+   */
+  private static final RedisScript<Long> PUT_IF_NOT_OLDER = RedisScript.of("""
+    local current = redis.call('GET', KEYS[1])
+    if current then
+      local separator = string.find(current, ':', 1, true)
+      if tonumber(string.sub(current, 1, separator - 1)) > tonumber(ARGV[1]) then
+        return 0
+      end
+    end
+    redis.call('SET', KEYS[1], ARGV[1] .. ':' .. ARGV[2], 'PX', ARGV[3])
+    return 1
+    """, Long.class);
+
+  private final StringRedisTemplate redisTemplate;
+  private final ObjectMapper objectMapper;
+  private final String keyPrefix;
+
+  private final Counter getErrorCounter;
+  private final Counter putErrorCounter;
+  private final Counter evictErrorCounter;
+
+  /**
+   * Constructor for the RedisVerificationCache that registers the error metrics.
+   *
+   * @param redisTemplate the {@link StringRedisTemplate} connected to the redis server
+   * @param objectMapper  the {@link ObjectMapper} for the values
+   * @param keyPrefix     the prefix of all keys of this application
+   * @param meterRegistry the {@link MeterRegistry} the metrics are registered at
+   */
+  public RedisVerificationCache(@NonNull StringRedisTemplate redisTemplate, @NonNull ObjectMapper objectMapper,
+                                @NonNull String keyPrefix, @NonNull MeterRegistry meterRegistry) {
+    this.redisTemplate = redisTemplate;
+    this.objectMapper = objectMapper;
+    this.keyPrefix = keyPrefix;
+    this.getErrorCounter = counter(meterRegistry, "get");
+    this.putErrorCounter = counter(meterRegistry, "put");
+    this.evictErrorCounter = counter(meterRegistry, "evict");
+  }
+
+  private static Counter counter(MeterRegistry meterRegistry, String operation) {
+    return Counter.builder(ERRORS_METRIC)
+      .description("Number of failed redis cache operations")
+      .tag("operation", operation)
+      .register(meterRegistry);
+  }
+
+  @Override
+  public <T> Optional<T> get(String region, String key, Class<T> type) {
+    try {
+      String entry = redisTemplate.opsForValue().get(redisKey(region, key));
+      if (entry == null) {
+        return Optional.empty();
+      }
+      String value = entry.substring(entry.indexOf(VERSION_SEPARATOR) + 1);
+      return value.isEmpty() ? Optional.empty() : Optional.of(objectMapper.readValue(value, type));
+    } catch (DataAccessException | JsonProcessingException e) {
+      getErrorCounter.increment();
+      log.warn("The lookup in the redis cache failed.", e);
+      return Optional.empty();
+    }
+  }
+
+  @Override
+  public void put(String region, String key, Object value, long version, Duration ttl) {
+    try {
+      putIfNotOlder(redisKey(region, key), objectMapper.writeValueAsString(value), version, ttl);
+    } catch (DataAccessException | JsonProcessingException e) {
+      putErrorCounter.increment();
+      log.warn("The update of the redis cache failed.", e);
+    }
+  }
+
+  @Override
+  public void evict(String region, String key, long version, Duration ttl) {
+    try {
+      putIfNotOlder(redisKey(region, key), "", version, ttl);
+    } catch (DataAccessException e) {
+      evictErrorCounter.increment();
+      log.warn("The eviction from the redis cache failed.", e);
+    }
+  }
+
+  private void putIfNotOlder(String redisKey, String value, long version, Duration ttl) {
+    redisTemplate.execute(PUT_IF_NOT_OLDER, List.of(redisKey),
+      String.valueOf(version), value, String.valueOf(Math.max(1, ttl.toMillis())));
+  }
+
+  @Override
+  public void evictAll(String region) {
+    ScanOptions scanOptions = ScanOptions.scanOptions()
+      .match(redisKey(region, "*"))
+      .count(EVICT_BATCH_SIZE)
+      .build();
+    try (Cursor<String> keys = redisTemplate.scan(scanOptions)) {
+      List<String> batch = new ArrayList<>(EVICT_BATCH_SIZE);
+      while (keys.hasNext()) {
+        batch.add(keys.next());
+        if (batch.size() == EVICT_BATCH_SIZE) {
+          redisTemplate.delete(batch);
+          batch.clear();
+        }
+      }
+      if (!batch.isEmpty()) {
+        redisTemplate.delete(batch);
+      }
+    } catch (DataAccessException e) {
+      evictErrorCounter.increment();
+      log.warn("The eviction of the region {} from the redis cache failed.", region, e);
+    }
+  }
+
+  private String redisKey(String region, String key) {
+    return keyPrefix + region + ":" + key;
+  }
+}
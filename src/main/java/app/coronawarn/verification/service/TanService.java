@@ -22,23 +22,32 @@
 
 import app.coronawarn.verification.config.VerificationApplicationConfig;
 import app.coronawarn.verification.domain.VerificationTan;
+import app.coronawarn.verification.domain.VerificationTanView;
 import app.coronawarn.verification.model.TanSourceOfTrust;
 import app.coronawarn.verification.model.TanType;
+import app.coronawarn.verification.model.TanVerification;
 import app.coronawarn.verification.model.TeleTanType;
+import app.coronawarn.verification.repository.RateLimitLockRepository;
 import app.coronawarn.verification.repository.VerificationTanRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.validation.constraints.NotNull;
-import java.security.SecureRandom;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.function.Supplier;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Collector;
-import java.util.stream.IntStream;
+import java.util.stream.Collectors;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * This class represents the TanService service.
@@ -47,6 +56,9 @@
 @Component
 public class TanService {
 
+  private static final String TELE_TAN_REJECTED_METRIC = "verification.teletan.rejected";
+  private static final String REASON_TAG = "reason";
+  private static final String TELE_TAN_RATE_LIMIT_LOCK = "teletan";
 
   private final VerificationApplicationConfig verificationApplicationConfig;
 
@@ -54,33 +66,63 @@ public class TanService {
    * The {@link VerificationTanRepository}.
    */
   private final VerificationTanRepository tanRepository;
+  /**
+   * The {@link RateLimitLockRepository}.
+   */
+  private final RateLimitLockRepository rateLimitLockRepository;
   /**
    * The {@link HashingService}.
    */
   private final HashingService hashingService;
+  /**
+   * The {@link TeleTanCodec}.
+   */
+  private final TeleTanCodec teleTanCodec;
+  /**
+   * The {@link EntropyService}.
+   */
+  private final EntropyService entropyService;
 
-  private final Pattern teleTanPattern;
+  private final Counter syntaxRejectedCounter;
+  private final Counter checkDigitRejectedCounter;
+  private final Counter unknownRejectedCounter;
 
   /**
-   * Constructor for the TanService that also builds the pattern for tele tan verification.
+   * Constructor for the TanService that also registers the teleTAN rejection metrics.
    *
    * @param verificationApplicationConfig the {@link VerificationApplicationConfig} with needed tan configurations
    * @param tanRepository                 the {@link VerificationTanRepository} where tans are queried and inserted
+   * @param rateLimitLockRepository       the {@link RateLimitLockRepository} locking the teleTAN rate limit
    * @param hashingService                the {@link HashingService} implementation
+   * @param teleTanCodec                  the {@link TeleTanCodec} validating and generating teleTANs
+   * @param entropyService                the {@link EntropyService} providing random TANs
+   * @param meterRegistry                 the {@link MeterRegistry} for the teleTAN rejection metrics
    */
   public TanService(
     @NonNull VerificationApplicationConfig verificationApplicationConfig,
     @NonNull VerificationTanRepository tanRepository,
-    @NonNull HashingService hashingService
+    @NonNull RateLimitLockRepository rateLimitLockRepository,
+    @NonNull HashingService hashingService,
+    @NonNull TeleTanCodec teleTanCodec,
+    @NonNull EntropyService entropyService,
+    @NonNull MeterRegistry meterRegistry
   ) {
     this.verificationApplicationConfig = verificationApplicationConfig;
     this.tanRepository = tanRepository;
+    this.rateLimitLockRepository = rateLimitLockRepository;
     this.hashingService = hashingService;
-    this.teleTanPattern = Pattern.compile("^["
-      + verificationApplicationConfig.getTan().getTele().getValid().getChars()
-      + "]{"
-      + (verificationApplicationConfig.getTan().getTele().getValid().getLength() + 1)
-      + "}$");
+    this.teleTanCodec = teleTanCodec;
+    this.entropyService = entropyService;
+    this.syntaxRejectedCounter = rejectedCounter(meterRegistry, "syntax");
+    this.checkDigitRejectedCounter = rejectedCounter(meterRegistry, "checksum");
+    this.unknownRejectedCounter = rejectedCounter(meterRegistry, "unknown");
+  }
+
+  private static Counter rejectedCounter(MeterRegistry meterRegistry, String reason) {
+    return Counter.builder(TELE_TAN_REJECTED_METRIC)
+      .description("Number of teleTANs rejected during verification")
+      .tag(REASON_TAG, reason)
+      .register(meterRegistry);
   }
 
   /**
@@ -93,6 +135,18 @@ public VerificationTan saveTan(VerificationTan tan) {
     return tanRepository.save(tan);
   }
 
+  /**
+   * Saves the {@link VerificationTan}s within one transaction, so their inserts and updates are executed as JDBC
+   * batches.
+   *
+   * @param tans the tans which will be saved
+   * @return the saved tans
+   */
+  @Transactional
+  public List<VerificationTan> saveTans(List<VerificationTan> tans) {
+    return tanRepository.saveAll(tans);
+  }
+
   /**
    * Deletes a {@link VerificationTan} from the database.
    *
@@ -103,35 +157,61 @@ public void deleteTan(VerificationTan tan) {
   }
 
   /**
-   * Check teleTAN syntax constraints.
+   * Deletes a {@link VerificationTan} by its id from the database.
    *
-   * @param teleTan the teleTAN
-   * @return teleTAN verification flag
+   * @param id the id of the tan which will be deleted
+   * @return true if the tan was deleted, false if it did not exist anymore
    */
-  private boolean syntaxTeleTanVerification(String teleTan) {
-    Matcher matcher = teleTanPattern.matcher(teleTan);
-    return matcher.find();
+  public boolean deleteTanById(Long id) {
+    return tanRepository.deleteTanById(id) > 0;
   }
 
   /**
-   * Verifies the tele transaction number (teleTAN).
+   * Verifies the TANs and deletes the redeemable ones. The TANs are loaded and locked with one query and the redeemable
+   * ones are deleted with one statement within the same transaction, so each TAN can only be verified once. If a TAN
+   * is contained multiple times only its first occurrence is verified.
    *
-   * @param teleTan the teleTAN to verify
-   * @return is teleTAN verified
+   * @param tans the TANs to verify
+   * @return the verification result for each TAN in the order of the given TANs
    */
-  public boolean verifyTeleTan(String teleTan) {
-    boolean verified = false;
-    if (syntaxTeleTanVerification(teleTan)) {
-      Optional<VerificationTan> teleTanEntity = getEntityByTan(teleTan);
-      if (teleTanEntity.isPresent() && teleTanEntity.get().canBeRedeemed(LocalDateTime.now())) {
-        verified = true;
-      } else {
-        log.warn("The teleTAN is unknown, expired or already redeemed.");
-      }
-    } else {
-      log.warn("The teleTAN is not valid to the syntax constraints.");
+  @Transactional
+  public List<TanVerification> verifyAndDeleteTans(List<String> tans) {
+    List<String> tanHashes = tans.stream().map(hashingService::hash).toList();
+    LocalDateTime now = LocalDateTime.now();
+    Map<String, VerificationTan> redeemableTans = tanRepository.findForUpdateByTanHashIn(new HashSet<>(tanHashes))
+      .stream()
+      .filter(tan -> tan.canBeRedeemed(now))
+      .collect(Collectors.toMap(VerificationTan::getTanHash, Function.identity(), (first, second) -> first));
+
+    if (!redeemableTans.isEmpty()) {
+      tanRepository.deleteTansByIdIn(redeemableTans.values().stream().map(VerificationTan::getId).toList());
     }
-    return verified;
+
+    Set<String> verifiedTanHashes = new HashSet<>();
+    List<TanVerification> verifications = new ArrayList<>(tans.size());
+    for (int i = 0; i < tans.size(); i++) {
+      String tanHash = tanHashes.get(i);
+      VerificationTan tan = verifiedTanHashes.add(tanHash) ? redeemableTans.get(tanHash) : null;
+      verifications.add(new TanVerification(tans.get(i), tan != null, tan == null ? null : tan.getTeleTanType()));
+    }
+    return verifications;
+  }
+
+  /**
+   * Loads the teleTAN for a registration, which has to pass {@link #isTeleTanValid(String)} before. This is the only
+   * database read of a teleTAN registration, the loaded entity is used to redeem the teleTAN afterwards.
+   *
+   * @param teleTan the teleTAN to load
+   * @return the teleTAN entity if it exists and can be redeemed
+   */
+  public Optional<VerificationTan> findRedeemableTeleTan(String teleTan) {
+    Optional<VerificationTan> teleTanEntity = getEntityByTan(teleTan)
+      .filter(tan -> tan.canBeRedeemed(LocalDateTime.now()));
+    if (teleTanEntity.isEmpty()) {
+      unknownRejectedCounter.increment();
+      log.warn("The teleTAN is unknown, expired or already redeemed.");
+    }
+    return teleTanEntity;
   }
 
   /**
@@ -171,27 +251,27 @@ private VerificationTan persistTan(
    * @return a new teleTAN
    */
   protected String createTeleTan() {
-    final int length = verificationApplicationConfig.getTan().getTele().getValid().getLength();
-    final String chars = verificationApplicationConfig.getTan().getTele().getValid().getChars();
-    String teletan = IntStream.range(0, length)
-      .mapToObj(i -> chars.charAt(Holder.NUMBER_GENERATOR.nextInt(chars.length())))
-      .collect(Collector.of(
-        StringBuilder::new,
-        StringBuilder::append,
-        StringBuilder::append,
-        StringBuilder::toString));
-    return teletan + hashingService.getCheckDigit(teletan);
-
+    return teleTanCodec.generate();
   }
 
   /**
-   * Returns the if a teleTAN matches the Pattern requirements.
+   * Returns the if a teleTAN matches the syntax and check digit requirements.
    *
    * @param teleTan the teleTAN to check
    * @return The validity of the teleTAN
    */
   public boolean isTeleTanValid(String teleTan) {
-    return syntaxTeleTanVerification(teleTan);
+    if (!teleTanCodec.isSyntaxValid(teleTan)) {
+      syntaxRejectedCounter.increment();
+      log.warn("The teleTAN is not valid to the syntax constraints.");
+      return false;
+    }
+    if (!teleTanCodec.isCheckDigitValid(teleTan)) {
+      checkDigitRejectedCounter.increment();
+      log.warn("The teleTAN has an invalid check digit.");
+      return false;
+    }
+    return true;
   }
 
   /**
@@ -201,7 +281,7 @@ public boolean isTeleTanValid(String teleTan) {
    */
   protected String createTanFromUuid() {
     // A UUID is a 128 bit value
-    return UUID.randomUUID().toString();
+    return entropyService.randomUuid().toString();
   }
 
   /**
@@ -226,6 +306,78 @@ public String generateVerificationTeleTan(@NotNull TeleTanType teleTanType) {
     return teleTan;
   }
 
+  /**
+   * Returns the given number of generated valid teleTANs and persists them. The existence of the generated teleTANs is
+   * checked with one query per round and all teleTANs are inserted within one transaction, so the inserts are executed
+   * as JDBC batches.
+   *
+   * @param count       the number of teleTANs to generate
+   * @param teleTanType type of the teleTANs
+   * @return the valid teleTANs
+   */
+  @Transactional
+  public List<String> generateVerificationTeleTans(int count, @NotNull TeleTanType teleTanType) {
+    Map<String, String> teleTansByHash = new LinkedHashMap<>();
+    while (teleTansByHash.size() < count) {
+      Map<String, String> candidates = new HashMap<>();
+      while (teleTansByHash.size() + candidates.size() < count) {
+        String teleTan = createTeleTan();
+        String tanHash = hashingService.hash(teleTan);
+        if (!teleTansByHash.containsKey(tanHash)) {
+          candidates.put(tanHash, teleTan);
+        }
+      }
+      tanRepository.findExistingTanHashes(candidates.keySet()).forEach(candidates::remove);
+      teleTansByHash.putAll(candidates);
+    }
+
+    List<VerificationTan> tans = teleTansByHash.keySet().stream()
+      .map(tanHash -> buildVerificationTan(tanHash, TanType.TELETAN, TanSourceOfTrust.TELETAN, teleTanType))
+      .toList();
+    saveTans(tans);
+    return List.copyOf(teleTansByHash.values());
+  }
+
+  /**
+   * Returns a generated valid teleTAN and persists it, if the rate limit for new TeleTans is not exceeded by it. See
+   * {@link #generateVerificationTeleTansWithinRateLimit(int, TeleTanType)}.
+   *
+   * @param teleTanType type of the teleTAN
+   * @return the valid teleTAN or an empty Optional if the rate limit is exceeded
+   */
+  @Transactional
+  public Optional<String> generateVerificationTeleTanWithinRateLimit(@NotNull TeleTanType teleTanType) {
+    lockTeleTanRateLimit();
+    if (!isTeleTanRateLimitNotExceeded()) {
+      return Optional.empty();
+    }
+    return Optional.of(generateVerificationTeleTan(teleTanType));
+  }
+
+  /**
+   * Returns the given number of generated valid teleTANs and persists them, if the rate limit for new TeleTans is not
+   * exceeded by them. The rate limit is locked until the end of the transaction, so concurrent requests of all
+   * instances check the rate limit one after another and each one counts the teleTANs created by the previous ones.
+   *
+   * @param count       the number of teleTANs to generate
+   * @param teleTanType type of the teleTANs
+   * @return the valid teleTANs or an empty Optional if the rate limit would be exceeded
+   */
+  @Transactional
+  public Optional<List<String>> generateVerificationTeleTansWithinRateLimit(int count,
+                                                                            @NotNull TeleTanType teleTanType) {
+    lockTeleTanRateLimit();
+    if (!isTeleTanRateLimitNotExceeded(count)) {
+      return Optional.empty();
+    }
+    return Optional.of(generateVerificationTeleTans(count, teleTanType));
+  }
+
+  private void lockTeleTanRateLimit() {
+    rateLimitLockRepository.findForUpdateByName(TELE_TAN_RATE_LIMIT_LOCK)
+      .orElseThrow(() -> new IllegalStateException("The lock of the teleTAN rate limit does not exist."));
+  }
+
   /**
    * This Method generates a valid TAN and persists it. Returns the generated TAN.
    *
@@ -249,6 +401,11 @@ public String generateVerificationTan(TanSourceOfTrust sourceOfTrust, TeleTanTyp
    */
   public VerificationTan generateVerificationTan(
     String tan, TanType tanType, TanSourceOfTrust sourceOfTrust, TeleTanType teleTanType) {
+    return buildVerificationTan(hashingService.hash(tan), tanType, sourceOfTrust, teleTanType);
+  }
+
+  private VerificationTan buildVerificationTan(
+    String tanHash, TanType tanType, TanSourceOfTrust sourceOfTrust, TeleTanType teleTanType) {
 
     LocalDateTime from = LocalDateTime.now();
     LocalDateTime until;
@@ -267,7 +424,7 @@ public VerificationTan generateVerificationTan(
     }
 
     VerificationTan verificationTan = new VerificationTan();
-    verificationTan.setTanHash(hashingService.hash(tan));
+    verificationTan.setTanHash(tanHash);
     verificationTan.setValidFrom(from);
     verificationTan.setValidUntil(until);
     verificationTan.setSourceOfTrust(sourceOfTrust);
@@ -290,12 +447,34 @@ public Optional<VerificationTan> getEntityByTan(String tan) {
     return tanRepository.findByTanHash(hashingService.hash(tan));
   }
 
+  /**
+   * Get a read only view of an existing VerificationTan by TAN from {@link VerificationTanRepository}.
+   *
+   * @param tan the TAN
+   * @return Optional VerificationTanView
+   */
+  @Transactional(readOnly = true)
+  public Optional<VerificationTanView> getTanViewByTan(String tan) {
+    log.info("Start getTanViewByTan.");
+    return tanRepository.findViewByTanHash(hashingService.hash(tan));
+  }
+
   /**
    * Checks whether the rate limit for new TeleTans is not exceeded.
    *
    * @return true if new TeleTans can be created false if not.
    */
   public boolean isTeleTanRateLimitNotExceeded() {
+    return isTeleTanRateLimitNotExceeded(1);
+  }
+
+  /**
+   * Checks whether the rate limit for new TeleTans is not exceeded if the given number of TeleTans is created.
+   *
+   * @param requested the number of TeleTans which should be created
+   * @return true if the requested TeleTans can be created false if not.
+   */
+  public boolean isTeleTanRateLimitNotExceeded(int requested) {
     int maxNumberOfTans = verificationApplicationConfig.getTan().getTele().getRateLimiting().getCount();
     int thresholdInPercent = verificationApplicationConfig.getTan().getTele().getRateLimiting().getThresholdInPercent();
     int thresholdTans = thresholdInPercent * maxNumberOfTans / 100;
@@ -304,24 +483,15 @@ public boolean isTeleTanRateLimitNotExceeded() {
     LocalDateTime timestamp = LocalDateTime.now().minusSeconds(timeWindow);
     int countedTans = tanRepository.countByCreatedAtIsAfterAndTypeIs(timestamp, TanType.TELETAN);
 
-    boolean result = countedTans < maxNumberOfTans;
+    boolean result = countedTans + requested <= maxNumberOfTans;
 
     if (!result) {
       log.warn("The TeleTan rate limit is exceeded! (maximum {} tans within {} seconds)", maxNumberOfTans, timeWindow);
-    } else if (countedTans >= thresholdTans) {
+    } else if (countedTans + requested > thresholdTans) {
       log.warn("The TeleTan rate limit threshold of {}% is reached!"
         + " (maximum {} tans within {} seconds)", thresholdInPercent, maxNumberOfTans, timeWindow);
     }
 
     return result;
   }
-
-  /*
-   * The random number generator used by this class to create random
-   * based UUIDs. In a holder class to defer initialization until needed.
-   */
-  private static class Holder {
-
-    static final SecureRandom NUMBER_GENERATOR = new SecureRandom();
-  }
 }
@@ -0,0 +1,125 @@
+/*-
+ * ---license-start
+ * Corona-Warn-App / cwa-verification
+ * ---
+ * Copyright (C) 2020 - 2022 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package app.coronawarn.verification.service;
+
+import app.coronawarn.verification.config.VerificationApplicationConfig;
+import lombok.NonNull;
+import org.springframework.stereotype.Component;
+
+/**
+ * This class represents the teleTAN codec, which validates and generates teleTANs for the configured alphabet.
+ * A teleTAN consists of the configured number of alphabet characters followed by a check digit.
+ */
+@Component
+public class TeleTanCodec {
+
+  private static final int ASCII_RANGE = 128;
+
+  private final HashingService hashingService;
+  private final EntropyService entropyService;
+
+  private final char[] alphabet;
+  private final boolean[] allowed = new boolean[ASCII_RANGE];
+  private final int length;
+
+  /**
+   * Constructor for the TeleTanCodec that builds the lookup table for the configured teleTAN alphabet.
+   *
+   * @param verificationApplicationConfig the {@link VerificationApplicationConfig} with the teleTAN configuration
+   * @param hashingService                the {@link HashingService} calculating the check digit
+   * @param entropyService                the {@link EntropyService} providing the random characters
+   */
+  public TeleTanCodec(
+    @NonNull VerificationApplicationConfig verificationApplicationConfig,
+    @NonNull HashingService hashingService,
+    @NonNull EntropyService entropyService
+  ) {
+    this.hashingService = hashingService;
+    this.entropyService = entropyService;
+    this.alphabet = verificationApplicationConfig.getTan().getTele().getValid().getChars().toCharArray();
+    this.length = verificationApplicationConfig.getTan().getTele().getValid().getLength();
+    if (alphabet.length == 0) {
+      throw new IllegalStateException("The teleTAN alphabet must not be empty");
+    }
+    for (char c : alphabet) {
+      if (c >= ASCII_RANGE) {
+        throw new IllegalStateException("The teleTAN alphabet must only contain ASCII characters");
+      }
+      allowed[c] = true;
+    }
+  }
+
+  /**
+   * Checks whether the teleTAN has the configured length including the check digit and only consists of characters
+   * of the configured alphabet.
+   *
+   * @param teleTan the teleTAN to check
+   * @return true if the teleTAN satisfies the syntax constraints
+   */
+  public boolean isSyntaxValid(String teleTan) {
+    if (teleTan == null || teleTan.length() != length + 1) {
+      return false;
+    }
+    for (int i = 0; i <= length; i++) {
+      char c = teleTan.charAt(i);
+      if (c >= ASCII_RANGE || !allowed[c]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Checks whether the last character of a syntactically valid teleTAN is the check digit of the characters before.
+   *
+   * @param teleTan the teleTAN to check
+   * @return true if the check digit matches
+   */
+  public boolean isCheckDigitValid(String teleTan) {
+    return hashingService.getCheckDigit(teleTan.substring(0, length)).charAt(0) == teleTan.charAt(length);
+  }
+
+  /**
+   * Checks the syntax and the check digit of a teleTAN.
+   *
+   * @param teleTan the teleTAN to check
+   * @return true if the teleTAN is valid
+   */
+  public boolean isValid(String teleTan) {
+    return isSyntaxValid(teleTan) && isCheckDigitValid(teleTan);
+  }
+
+  /**
+   * Generates a new random teleTAN with the configured length and appends its check digit.
+   *
+   * @return a new teleTAN
+   */
+  public String generate() {
+    char[] teleTan = new char[length + 1];
+    for (int i = 0; i < length; i++) {
+      teleTan[i] = alphabet[entropyService.nextInt(alphabet.length)];
+    }
+    teleTan[length] = hashingService.getCheckDigit(new String(teleTan, 0, length)).charAt(0);
+    return new String(teleTan);
+  }
+
+}
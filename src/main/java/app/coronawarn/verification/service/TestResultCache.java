@@ -0,0 +1,80 @@
+/*-
+ * ---license-start
+ * Corona-Warn-App / cwa-verification
+ * ---
+ * Copyright (C) 2020 - 2022 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package app.coronawarn.verification.service;
+
+import app.coronawarn.verification.config.VerificationApplicationConfig;
+import app.coronawarn.verification.model.TestResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Optional;
+import java.util.function.Supplier;
+import lombok.NonNull;
+import org.springframework.stereotype.Component;
+
+/**
+ * This class represents the cache of the {@link TestResult}s of the test result server keyed by the hashed GUID,
+ * stored in the region "testresult" of the {@link VerificationCache}. The test results have no version, they are only
+ * evicted all together.
+ */
+@Component
+public class TestResultCache {
+
+  static final String REGION = "testresult";
+
+  private final CacheRegion<TestResult> region;
+
+  /**
+   * Constructor for the TestResultCache.
+   *
+   * @param verificationApplicationConfig the {@link VerificationApplicationConfig} with the cache configuration
+   * @param verificationCache             the {@link VerificationCache} storing the test results
+   * @param meterRegistry                 the {@link MeterRegistry} the metrics are registered at
+   */
+  public TestResultCache(@NonNull VerificationApplicationConfig verificationApplicationConfig,
+                         @NonNull VerificationCache verificationCache, @NonNull MeterRegistry meterRegistry) {
+    this.region = new CacheRegion<>(verificationCache, REGION, TestResult.class, testResult -> 0L,
+      verificationApplicationConfig.getCache().getTestresult(), meterRegistry);
+  }
+
+  /**
+   * Returns a copy of the cached test result or loads it with the given loader and caches it. The response padding is
+   * neither cached nor returned, the callers set it on the returned copy.
+   *
+   * @param hashedGuid the hashed GUID of the test
+   * @param loader     the loader of the test result, called on a cache miss
+   * @return the test result
+   */
+  public TestResult get(String hashedGuid, Supplier<TestResult> loader) {
+    return region.get(hashedGuid, () -> Optional.ofNullable(loader.get()).map(TestResultCache::copy))
+      .map(TestResultCache::copy)
+      .orElse(null);
+  }
+
+  /**
+   * Removes all test results from the cache.
+   */
+  public void invalidateAll() {
+    region.evictAll();
+  }
+
+  private static TestResult copy(TestResult testResult) {
+    return new TestResult(testResult.getTestResult(), testResult.getSc(), testResult.getLabId(), null);
+  }
+}
@@ -21,6 +21,7 @@
 package app.coronawarn.verification.service;
 
 import app.coronawarn.verification.client.TestResultServerClient;
+import app.coronawarn.verification.config.RequestMetrics;
 import app.coronawarn.verification.model.HashedGuid;
 import app.coronawarn.verification.model.TestResult;
 import lombok.RequiredArgsConstructor;
@@ -36,14 +37,17 @@
 public class TestResultServerService {
 
   private final TestResultServerClient testResultServerClient;
+  private final TestResultCache testResultCache;
 
   /**
-   * This method gives an TestResult for a guid.
+   * This method gives an TestResult for a guid. The TestResult is served from the {@link TestResultCache}, if it is
+   * enabled.
    *
    * @param guid hashed GUID
    * @return Testresult for GUID
    */
   public TestResult result(HashedGuid guid) {
-    return testResultServerClient.result(guid);
+    return testResultCache.get(guid.getId(), () -> RequestMetrics.recordPhase(RequestMetrics.Phase.UPSTREAM,
+      () -> testResultServerClient.result(guid)));
   }
 }
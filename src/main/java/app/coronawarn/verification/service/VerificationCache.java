@@ -0,0 +1,78 @@
+/*-
+ * ---license-start
+ * Corona-Warn-App / cwa-verification
+ * ---
+ * Copyright (C) 2020 - 2022 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package app.coronawarn.verification.service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * This interface represents the cache tier of the verification server. The entries are grouped by regions, e.g. the
+ * app sessions and the test results, and expire after a time to live. Implementations must not throw if the cache is
+ * not reachable, a lookup is then treated as a miss.
+ *
+ * <p>Each entry is stamped with the version of its value, e.g. the version of the entity it was loaded from. A value
+ * is only stored, if the cache does not hold a newer version of the key. The eviction of a key leaves a marker with
+ * the version of the modified entity, so a value of an older version, which was loaded concurrently by any instance,
+ * is rejected afterwards. The check and the update of the entry are atomic.
+ */
+public interface VerificationCache {
+
+  /**
+   * This method returns the cached value of the key within the region.
+   *
+   * @param region the region of the entry
+   * @param key    the key of the entry
+   * @param type   the type of the value
+   * @param <T>    the type of the value
+   * @return Optional with the cached value, empty if it is not cached
+   */
+  <T> Optional<T> get(String region, String key, Class<T> type);
+
+  /**
+   * This method caches the value of the key within the region, unless a newer version of the key is cached.
+   *
+   * @param region  the region of the entry
+   * @param key     the key of the entry
+   * @param value   the value to cache
+   * @param version the version of the value
+   * @param ttl     the time to live of the entry
+   */
+  void put(String region, String key, Object value, long version, Duration ttl);
+
+  /**
+   * This method removes the value of the key within the region from the cache and rejects values of older versions
+   * for the time to live, unless a newer version of the key is cached.
+   *
+   * @param region  the region of the entry
+   * @param key     the key of the entry
+   * @param version the version of the modified value
+   * @param ttl     the time to live of the eviction marker
+   */
+  void evict(String region, String key, long version, Duration ttl);
+
+  /**
+   * This method removes all keys within the region from the cache.
+   *
+   * @param region the region of the entries
+   */
+  void evictAll(String region);
+
+}
@@ -32,7 +32,8 @@
 import org.springframework.stereotype.Component;
 
 /**
- * The registration token request validator.
+ * The registration token request validator. It only checks the syntax of the key (and the check digit of a teleTAN)
+ * without any database access, whether the key is known is checked when the registration token is generated.
  */
 @Slf4j
 @RequiredArgsConstructor
@@ -61,7 +62,7 @@ public boolean isValid(RegistrationTokenRequest request, ConstraintValidatorCont
     }
     return switch (keyType) {
       case GUID -> hashingService.isHashValid(key);
-      case TELETAN -> tanService.verifyTeleTan(key);
+      case TELETAN -> tanService.isTeleTanValid(key);
     };
   }
 }
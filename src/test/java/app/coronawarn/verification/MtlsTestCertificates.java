@@ -0,0 +1,144 @@
+/*-
+ * ---license-start
+ * Corona-Warn-App / cwa-verification
+ * ---
+ * Copyright (C) 2020 - 2022 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package app.coronawarn.verification;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
+import org.apache.commons.codec.digest.DigestUtils;
+
+/**
+ * This class generates a test CA and key stores signed by it with the keytool of the running JDK, so the mutual TLS
+ * tests do not depend on committed certificates which expire.
+ */
+public class MtlsTestCertificates {
+
+  public static final String PASSWORD = "changeit";
+
+  private static final String CA_ALIAS = "ca";
+  private static final String STORE_TYPE = "PKCS12";
+
+  private final Path directory;
+  private final Path caCertificate;
+  private final Path trustStore;
+
+  /**
+   * Generates the test CA and a trust store with its certificate in the given directory.
+   *
+   * @param directory the directory of the generated files
+   */
+  public MtlsTestCertificates(Path directory) throws IOException, InterruptedException {
+    this.directory = directory;
+    Path caKeyStore = directory.resolve("ca.p12");
+    keytool("-genkeypair", "-alias", CA_ALIAS, "-keyalg", "EC", "-groupname", "secp256r1", "-dname", "CN=Test CA",
+      "-ext", "bc:c", "-validity", "2", "-keystore", caKeyStore.toString());
+    caCertificate = directory.resolve("ca.pem");
+    keytool("-exportcert", "-rfc", "-alias", CA_ALIAS, "-file", caCertificate.toString(),
+      "-keystore", caKeyStore.toString());
+    trustStore = directory.resolve("truststore.p12");
+    keytool("-importcert", "-noprompt", "-alias", CA_ALIAS, "-file", caCertificate.toString(),
+      "-keystore", trustStore.toString());
+  }
+
+  public Path getTrustStore() {
+    return trustStore;
+  }
+
+  /**
+   * Generates a key store with a key pair, whose certificate is signed by the test CA.
+   *
+   * @param alias      the alias and common name of the key pair
+   * @param extensions the keytool extensions of the certificate, e.g. "SAN=dns:localhost"
+   * @return the path of the key store
+   */
+  public Path createKeyStore(String alias, String... extensions) throws IOException, InterruptedException {
+    Path keyStore = directory.resolve(alias + ".p12");
+    Path request = directory.resolve(alias + ".csr");
+    Path certificate = directory.resolve(alias + ".pem");
+    keytool("-genkeypair", "-alias", alias, "-keyalg", "EC", "-groupname", "secp256r1", "-dname", "CN=" + alias,
+      "-keystore", keyStore.toString());
+    keytool("-certreq", "-alias", alias, "-file", request.toString(), "-keystore", keyStore.toString());
+    List<String> gencert = new ArrayList<>(List.of("-gencert", "-rfc", "-alias", CA_ALIAS, "-validity", "1",
+      "-infile", request.toString(), "-outfile", certificate.toString(),
+      "-keystore", directory.resolve("ca.p12").toString()));
+    for (String extension : extensions) {
+      gencert.add("-ext");
+      gencert.add(extension);
+    }
+    keytool(gencert.toArray(String[]::new));
+    keytool("-importcert", "-noprompt", "-alias", CA_ALIAS, "-file", caCertificate.toString(),
+      "-keystore", keyStore.toString());
+    keytool("-importcert", "-alias", alias, "-file", certificate.toString(), "-keystore", keyStore.toString());
+    return keyStore;
+  }
+
+  /**
+   * Returns the SHA-256 thumbprint of the certificate in the given key store, as configured in the allowed client
+   * certificates.
+   */
+  public static String thumbprint(Path keyStore, String alias) throws Exception {
+    X509Certificate certificate = (X509Certificate) load(keyStore).getCertificate(alias);
+    return DigestUtils.sha256Hex(certificate.getEncoded());
+  }
+
+  /**
+   * Creates a client SSL context authenticating with the given key store and trusting the test CA.
+   */
+  public SSLContext sslContext(Path keyStore) throws Exception {
+    KeyManagerFactory keyManagerFactory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+    keyManagerFactory.init(load(keyStore), PASSWORD.toCharArray());
+    TrustManagerFactory trustManagerFactory =
+      TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+    trustManagerFactory.init(load(trustStore));
+    SSLContext sslContext = SSLContext.getInstance("TLSv1.3");
+    sslContext.init(keyManagerFactory.getKeyManagers(), trustManagerFactory.getTrustManagers(), null);
+    return sslContext;
+  }
+
+  private static KeyStore load(Path path) throws Exception {
+    KeyStore keyStore = KeyStore.getInstance(STORE_TYPE);
+    try (InputStream inputStream = Files.newInputStream(path)) {
+      keyStore.load(inputStream, PASSWORD.toCharArray());
+    }
+    return keyStore;
+  }
+
+  private static void keytool(String... arguments) throws IOException, InterruptedException {
+    List<String> command = new ArrayList<>();
+    command.add(Path.of(System.getProperty("java.home"), "bin", "keytool").toString());
+    command.addAll(List.of(arguments));
+    command.addAll(List.of("-storetype", STORE_TYPE, "-storepass", PASSWORD));
+    Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+    String output = new String(process.getInputStream().readAllBytes());
+    if (!process.waitFor(30, TimeUnit.SECONDS) || process.exitValue() != 0) {
+      throw new IOException("keytool " + arguments[0] + " failed: " + output);
+    }
+  }
+}
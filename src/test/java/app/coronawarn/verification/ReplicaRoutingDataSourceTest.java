@@ -0,0 +1,132 @@
+/*-
+ * ---license-start
+ * Corona-Warn-App / cwa-verification
+ * ---
+ * Copyright (C) 2020 - 2022 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package app.coronawarn.verification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import app.coronawarn.verification.config.ReplicaRoutingDataSource;
+import app.coronawarn.verification.config.VerificationApplicationConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+public class ReplicaRoutingDataSourceTest {
+
+  MeterRegistry meterRegistry = new SimpleMeterRegistry();
+  VerificationApplicationConfig.Replica replicaConfig = new VerificationApplicationConfig.Replica();
+  DataSource primary = database("primary");
+  DataSource replica = database("replica");
+  ReplicaRoutingDataSource dataSource;
+
+  @BeforeEach
+  public void setUp() throws SQLException {
+    execute(primary, "CREATE TABLE IF NOT EXISTS db_name (name VARCHAR(10))", "DELETE FROM db_name",
+      "INSERT INTO db_name VALUES ('primary')");
+    execute(replica, "CREATE TABLE IF NOT EXISTS db_name (name VARCHAR(10))", "DELETE FROM db_name",
+      "INSERT INTO db_name VALUES ('replica')",
+      "CREATE TABLE IF NOT EXISTS replica_lag (seconds DOUBLE)", "DELETE FROM replica_lag",
+      "INSERT INTO replica_lag VALUES (0)");
+    replicaConfig.setLagQuery("SELECT seconds FROM replica_lag");
+    replicaConfig.setMaxLag(5);
+    dataSource = new ReplicaRoutingDataSource(primary, replica, replicaConfig, meterRegistry);
+    dataSource.afterPropertiesSet();
+  }
+
+  @AfterEach
+  public void tearDown() throws Exception {
+    dataSource.destroy();
+  }
+
+  @Test
+  public void routesReplicaReadsToReplica() {
+    assertThat(dataSource.isReplicaAvailable()).isTrue();
+    assertThat(dataSource.readFromReplica(this::databaseName)).isEqualTo("replica");
+    assertThat(databaseName()).isEqualTo("primary");
+    assertThat(connections("replica")).isEqualTo(1);
+    assertThat(connections("primary")).isEqualTo(1);
+  }
+
+  @Test
+  public void fallsBackToPrimaryOnReplicationLag() throws SQLException {
+    execute(replica, "UPDATE replica_lag SET seconds = 30");
+    dataSource.checkReplicaLag();
+    assertThat(dataSource.isReplicaAvailable()).isFalse();
+    assertThat(dataSource.readFromReplica(this::databaseName)).isEqualTo("primary");
+    assertThat(meterRegistry.get("verification.datasource.replica.lag").gauge().value()).isEqualTo(30);
+
+    execute(replica, "UPDATE replica_lag SET seconds = 1");
+    dataSource.checkReplicaLag();
+    assertThat(dataSource.readFromReplica(this::databaseName)).isEqualTo("replica");
+  }
+
+  @Test
+  public void fallsBackToPrimaryIfLagIsUnknown() {
+    replicaConfig.setLagQuery("SELECT seconds FROM unknown_table");
+    dataSource.checkReplicaLag();
+    assertThat(dataSource.isReplicaAvailable()).isFalse();
+    assertThat(dataSource.readFromReplica(this::databaseName)).isEqualTo("primary");
+  }
+
+  @Test
+  public void fallsBackToPrimaryIfLagIsNull() throws SQLException {
+    execute(replica, "UPDATE replica_lag SET seconds = NULL");
+    dataSource.checkReplicaLag();
+    assertThat(dataSource.isReplicaAvailable()).isFalse();
+    assertThat(dataSource.readFromReplica(this::databaseName)).isEqualTo("primary");
+    assertThat(meterRegistry.get("verification.datasource.replica.lag").gauge().value()).isNaN();
+  }
+
+  private String databaseName() {
+    try (Connection connection = dataSource.getConnection();
+         Statement statement = connection.createStatement();
+         ResultSet resultSet = statement.executeQuery("SELECT name FROM db_name")) {
+      resultSet.next();
+      return resultSet.getString(1);
+    } catch (SQLException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private double connections(String target) {
+    return meterRegistry.get("verification.datasource.connections").tag("target", target).counter().count();
+  }
+
+  private static DataSource database(String name) {
+    return new DriverManagerDataSource("jdbc:h2:mem:routing_" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+  }
+
+  private static void execute(DataSource dataSource, String... statements) throws SQLException {
+    try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+      for (String sql : statements) {
+        statement.execute(sql);
+      }
+    }
+  }
+}
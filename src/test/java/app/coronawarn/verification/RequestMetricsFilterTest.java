@@ -0,0 +1,114 @@
+/*-
+ * ---license-start
+ * Corona-Warn-App / cwa-verification
+ * ---
+ * Copyright (C) 2020 - 2022 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package app.coronawarn.verification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import app.coronawarn.verification.config.RequestMetrics;
+import app.coronawarn.verification.config.RequestMetricsFilter;
+import app.coronawarn.verification.model.AppSessionSourceOfTrust;
+import app.coronawarn.verification.model.RegistrationTokenKeyType;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServletResponse;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+public class RequestMetricsFilterTest {
+
+  MeterRegistry meterRegistry = new SimpleMeterRegistry();
+  RequestMetricsFilter filter = new RequestMetricsFilter(meterRegistry);
+
+  @Test
+  public void recordsRealRequestWithTagsAndPhases() throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("POST", "/version/v1/registrationToken");
+    filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+      RequestMetrics.tagKeyType(RegistrationTokenKeyType.GUID);
+      RequestMetrics.addPhaseTime(RequestMetrics.Phase.DB, TimeUnit.MILLISECONDS.toNanos(3));
+      RequestMetrics.addPhaseTime(RequestMetrics.Phase.HASHING, TimeUnit.MILLISECONDS.toNanos(1));
+      ((HttpServletResponse) res).setStatus(201);
+    });
+
+    Timer timer = meterRegistry.get("verification.request")
+      .tag("route", "/registrationToken")
+      .tag("fake", "false")
+      .tag("outcome", "created")
+      .tag("keytype", "GUID")
+      .tag("sourceoftrust", RequestMetrics.NONE)
+      .timer();
+    assertThat(timer.count()).isEqualTo(1);
+    assertThat(meterRegistry.get("verification.request.phase").tag("phase", "db").timer()
+      .totalTime(TimeUnit.MILLISECONDS)).isEqualTo(3);
+    assertThat(meterRegistry.find("verification.request.phase").tag("phase", "upstream").timer()).isNull();
+  }
+
+  @Test
+  public void recordsRequestsWithSameTagsInOneHistogram() throws Exception {
+    for (int i = 0; i < 2; i++) {
+      filter.doFilter(new MockHttpServletRequest("POST", "/version/v1/tan"), new MockHttpServletResponse(),
+        (req, res) -> ((HttpServletResponse) res).setStatus(201));
+    }
+
+    Timer timer = meterRegistry.get("verification.request").tag("route", "/tan").timer();
+    assertThat(meterRegistry.find("verification.request").timers()).containsExactly(timer);
+    assertThat(timer.count()).isEqualTo(2);
+    assertThat(timer.takeSnapshot().histogramCounts()).isNotEmpty();
+    assertThat(timer.takeSnapshot().percentileValues()).hasSize(3);
+  }
+
+  @Test
+  public void recordsFakeRequestWithoutPhases() throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("POST", "/version/v1/tan");
+    request.addHeader("cwa-fake", "1");
+    filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+      RequestMetrics.tagSourceOfTrust(AppSessionSourceOfTrust.TELETAN);
+      RequestMetrics.addPhaseTime(RequestMetrics.Phase.DB, 1);
+      ((HttpServletResponse) res).setStatus(400);
+    });
+
+    assertThat(meterRegistry.get("verification.request")
+      .tag("fake", "true")
+      .tag("outcome", "bad_request")
+      .tag("sourceoftrust", "TELETAN")
+      .timer().count()).isEqualTo(1);
+    assertThat(meterRegistry.find("verification.request.phase").timer()).isNull();
+  }
+
+  @Test
+  public void resolvesRouteWithoutPathParameters() throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("POST", "/version/v1/tan;jsessionid=1");
+    filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> ((HttpServletResponse) res).setStatus(201));
+
+    assertThat(meterRegistry.get("verification.request").tag("route", "/tan").timer().count()).isEqualTo(1);
+  }
+
+  @Test
+  public void ignoresOtherRoutes() throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/actuator/health");
+    filter.doFilter(request, new MockHttpServletResponse(), (req, res) ->
+      RequestMetrics.addPhaseTime(RequestMetrics.Phase.DB, 1));
+
+    assertThat(meterRegistry.find("verification.request").timer()).isNull();
+  }
+}
@@ -0,0 +1,131 @@
+/*-
+ * ---license-start
+ * Corona-Warn-App / cwa-verification
+ * ---
+ * Copyright (C) 2020 - 2022 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package app.coronawarn.verification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import app.coronawarn.verification.config.RequestSizeLimitFilter;
+import app.coronawarn.verification.config.VerificationApplicationConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.FileCopyUtils;
+import org.springframework.util.StreamUtils;
+
+public class RequestSizeLimitFilterTest {
+
+  private static final String METRIC = "verification.request.rejected";
+
+  VerificationApplicationConfig config = new VerificationApplicationConfig();
+  MeterRegistry meterRegistry = new SimpleMeterRegistry();
+  RequestSizeLimitFilter filter = new RequestSizeLimitFilter(config, meterRegistry);
+  AtomicBoolean bodyRead = new AtomicBoolean();
+  FilterChain readingChain = (request, response) -> {
+    StreamUtils.copyToByteArray(request.getInputStream());
+    bodyRead.set(true);
+  };
+
+  @Test
+  public void acceptsSmallBody() throws Exception {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filter.doFilter(post("{}", false), response, readingChain);
+    assertThat(bodyRead).isTrue();
+    assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+  }
+
+  @Test
+  public void rejectsLargeContentLength() throws Exception {
+    config.getRequest().setSizelimit(10);
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filter.doFilter(post("{\"key\":\"too large\"}", false), response, readingChain);
+    assertThat(bodyRead).isFalse();
+    assertThat(response.getStatus()).isEqualTo(HttpStatus.NOT_ACCEPTABLE.value());
+    assertThat(rejected("content-length")).isEqualTo(1.0);
+  }
+
+  @Test
+  public void rejectsChunkedRequest() throws Exception {
+    MockHttpServletRequest request = post("{}", false);
+    request.addHeader("Transfer-Encoding", "chunked");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filter.doFilter(request, response, readingChain);
+    assertThat(bodyRead).isFalse();
+    assertThat(response.getStatus()).isEqualTo(HttpStatus.NOT_ACCEPTABLE.value());
+    assertThat(rejected("chunked")).isEqualTo(1.0);
+  }
+
+  @Test
+  public void rejectsBodyLargerThanAnnounced() throws Exception {
+    config.getRequest().setSizelimit(10);
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filter.doFilter(post("{\"key\":\"too large\"}", true), response, readingChain);
+    assertThat(bodyRead).isFalse();
+    assertThat(response.getStatus()).isEqualTo(HttpStatus.NOT_ACCEPTABLE.value());
+    assertThat(rejected("body-size")).isEqualTo(1.0);
+  }
+
+  @Test
+  public void rejectsBodyLargerThanAnnouncedReadByReader() throws Exception {
+    config.getRequest().setSizelimit(10);
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filter.doFilter(post("{\"key\":\"too large\"}", true), response, (request, chainResponse) -> {
+      assertThat(request.getReader()).isSameAs(request.getReader());
+      FileCopyUtils.copyToString(request.getReader());
+      bodyRead.set(true);
+    });
+    assertThat(bodyRead).isFalse();
+    assertThat(response.getStatus()).isEqualTo(HttpStatus.NOT_ACCEPTABLE.value());
+    assertThat(rejected("body-size")).isEqualTo(1.0);
+  }
+
+  @Test
+  public void ignoresRequestsWithoutBody() throws Exception {
+    config.getRequest().setSizelimit(0);
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/actuator/health");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filter.doFilter(request, response, readingChain);
+    assertThat(bodyRead).isTrue();
+    assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+  }
+
+  private double rejected(String reason) {
+    return meterRegistry.get(METRIC).tag("reason", reason).counter().count();
+  }
+
+  private static MockHttpServletRequest post(String body, boolean hideContentLength) {
+    MockHttpServletRequest request = hideContentLength
+      ? new MockHttpServletRequest("POST", "/version/v1/registrationToken") {
+        @Override
+        public long getContentLengthLong() {
+          return -1;
+        }
+      }
+      : new MockHttpServletRequest("POST", "/version/v1/registrationToken");
+    request.setContent(body.getBytes(StandardCharsets.UTF_8));
+    return request;
+  }
+}
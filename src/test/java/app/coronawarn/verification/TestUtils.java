@@ -22,6 +22,7 @@
 
 import app.coronawarn.verification.domain.VerificationAppSession;
 import app.coronawarn.verification.domain.VerificationTan;
+import app.coronawarn.verification.domain.VerificationTanView;
 import app.coronawarn.verification.model.AppSessionSourceOfTrust;
 import app.coronawarn.verification.model.AuthorizationRole;
 import app.coronawarn.verification.model.TanSourceOfTrust;
@@ -42,6 +43,7 @@
 import java.util.List;
 import java.util.Map;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -139,6 +141,10 @@ static VerificationTan getVerificationTANTestData() {
     return cvtan;
   }
 
+  static VerificationTanView getTanView(VerificationTan tan) {
+    return new SpelAwareProxyProjectionFactory().createProjection(VerificationTanView.class, tan);
+  }
+
   static String getAsJsonFormat(Object o) throws JsonProcessingException {
     return objectMapper.writeValueAsString(o);
   }
@@ -0,0 +1,98 @@
+/*-
+ * ---license-start
+ * Corona-Warn-App / cwa-verification
+ * ---
+ * Copyright (C) 2020 - 2022 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package app.coronawarn.verification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import app.coronawarn.verification.config.TlsConnectionMetricsFilter;
+import app.coronawarn.verification.config.VerificationApplicationConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletConnection;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+public class TlsConnectionMetricsFilterTest {
+
+  MeterRegistry meterRegistry = new SimpleMeterRegistry();
+  TlsConnectionMetricsFilter filter = new TlsConnectionMetricsFilter(new VerificationApplicationConfig(),
+    meterRegistry);
+
+  @Test
+  public void countsConnectionsAndRequestsOnReusedConnections() throws Exception {
+    perform("1");
+    perform("1");
+    perform("1");
+    perform("2");
+
+    assertThat(meterRegistry.get("verification.tls.connections").counter().count()).isEqualTo(2);
+    assertThat(count("new")).isEqualTo(2);
+    assertThat(count("reused")).isEqualTo(2);
+  }
+
+  @Test
+  public void ignoresInsecureRequests() throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("POST", "/version/v1/tan/verify");
+    filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+    assertThat(meterRegistry.get("verification.tls.connections").counter().count()).isZero();
+    assertThat(count("new")).isZero();
+  }
+
+  private void perform(String connectionId) throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("POST", "/version/v1/tan/verify");
+    request.setSecure(true);
+    ServletConnection connection = new ServletConnection() {
+      @Override
+      public String getConnectionId() {
+        return connectionId;
+      }
+
+      @Override
+      public String getProtocol() {
+        return "HTTP/1.1";
+      }
+
+      @Override
+      public String getProtocolConnectionId() {
+        return "";
+      }
+
+      @Override
+      public boolean isSecure() {
+        return true;
+      }
+    };
+    filter.doFilter(new HttpServletRequestWrapper(request) {
+      @Override
+      public ServletConnection getServletConnection() {
+        return connection;
+      }
+    }, new MockHttpServletResponse(), new MockFilterChain());
+  }
+
+  private double count(String connection) {
+    return meterRegistry.get("verification.tls.requests").tag("connection", connection).counter().count();
+  }
+}
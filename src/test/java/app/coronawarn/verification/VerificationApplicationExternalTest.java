@@ -26,8 +26,13 @@
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -35,6 +40,7 @@
 
 import app.coronawarn.verification.config.VerificationApplicationConfig;
 import app.coronawarn.verification.domain.VerificationAppSession;
+import app.coronawarn.verification.domain.VerificationTan;
 import app.coronawarn.verification.model.AppSessionSourceOfTrust;
 import app.coronawarn.verification.model.HashedGuid;
 import app.coronawarn.verification.model.RegistrationToken;
@@ -42,10 +48,16 @@
 import app.coronawarn.verification.model.RegistrationTokenRequest;
 import app.coronawarn.verification.model.TeleTanType;
 import app.coronawarn.verification.repository.VerificationAppSessionRepository;
+import app.coronawarn.verification.repository.VerificationTanRepository;
+import app.coronawarn.verification.service.FakeDelayService;
+import app.coronawarn.verification.service.FakeRequestService;
+import app.coronawarn.verification.service.FakeResponseTemplates;
 import app.coronawarn.verification.service.TanService;
 import app.coronawarn.verification.service.TestResultServerService;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -54,7 +66,11 @@
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.ContextConfiguration;
@@ -69,6 +85,7 @@
 @ExtendWith(SpringExtension.class)
 @SpringBootTest
 @ContextConfiguration(classes = VerificationApplication.class)
+@Import(VerificationApplicationExternalTest.ImmediateFakeResponses.class)
 @AutoConfigureMockMvc
 @ActiveProfiles({"external","local"})
 public class VerificationApplicationExternalTest {
@@ -80,6 +97,8 @@ public class VerificationApplicationExternalTest {
   private TestResultServerService testResultServerService;
   @MockBean
   private TanService tanService;
+  @MockBean
+  private VerificationTanRepository tanRepository;
   @Autowired
   private VerificationAppSessionRepository appSessionrepository;
 
@@ -112,13 +131,14 @@ public void callGenerateTanWithFake() throws Exception {
     TestUtils.prepareAppSessionTestData(appSessionrepository);
     doReturn(TestUtils.TEST_LAB_POSITIVE_RESULT).when(testResultServerService).result(any());
 
-    MvcResult result = mockMvc.perform(post(TestUtils.PREFIX_API_VERSION + "/tan")
+    mockMvc.perform(post(TestUtils.PREFIX_API_VERSION + "/tan")
       .secure(true)
       .header("cwa-fake", "1")
       .contentType(MediaType.APPLICATION_JSON)
-      .content(TestUtils.getAsJsonFormat(new RegistrationToken(TestUtils.TEST_REG_TOK, TOKEN_PADDING)))).andReturn();
-    mockMvc.perform(asyncDispatch(result))
-      .andExpect(status().isCreated());
+      .content(TestUtils.getAsJsonFormat(new RegistrationToken(TestUtils.TEST_REG_TOK, TOKEN_PADDING))))
+      .andExpect(status().isCreated())
+      .andExpect(jsonPath("$.tan").exists())
+      .andExpect(jsonPath("$.responsePadding").exists());
   }
 
   /**
@@ -154,6 +174,7 @@ public void callGenerateTan() throws Exception {
     assertEquals(AppSessionSourceOfTrust.HASHED_GUID, verificationList.get(0).getSourceOfTrust());
     assertEquals(TestUtils.TEST_REG_TOK_HASH, verificationList.get(0).getRegistrationTokenHash());
     assertEquals(TeleTanType.EVENT, verificationList.get(0).getTeleTanType());
+    assertEquals(1, verificationList.get(0).getTanCounter());
 
   }
 
@@ -237,7 +258,8 @@ public void callGenerateTanWithNegativeCovidResultFaked() throws Exception {
       .header("cwa-fake", "1")
       .contentType(MediaType.APPLICATION_JSON)
       .content(TestUtils.getAsJsonFormat(new RegistrationToken(TestUtils.TEST_REG_TOK, TOKEN_PADDING))))
-      .andExpect(status().isOk());
+      .andExpect(status().isCreated());
+    verify(testResultServerService, never()).result(any());
   }
 
   /**
@@ -510,15 +532,32 @@ public void callGetRegistrationTokenByGuidWithFake() throws Exception {
     log.info("process callGetRegistrationTokenByGuid() ");
     appSessionrepository.deleteAll();
     RegistrationTokenRequest request = new RegistrationTokenRequest(TestUtils.TEST_GUI_HASH, null, RegistrationTokenKeyType.GUID);
-    MvcResult result = mockMvc.perform(post(TestUtils.PREFIX_API_VERSION + TestUtils.REGISTRATION_TOKEN_URI)
+    mockMvc.perform(post(TestUtils.PREFIX_API_VERSION + TestUtils.REGISTRATION_TOKEN_URI)
       .secure(true)
       .contentType(MediaType.APPLICATION_JSON)
       .header("cwa-fake", "1")
       .content(TestUtils.getAsJsonFormat(request)))
-      .andReturn();
-    mockMvc.perform(asyncDispatch(result))
-      .andExpect(status().isCreated());
+      .andExpect(status().isCreated())
+      .andExpect(jsonPath("$.registrationToken").exists());
+  }
 
+  /**
+   * Test get registration token by a teleTAN with fake, which is answered without validating the teleTAN.
+   *
+   * @throws Exception if the test cannot be performed.
+   */
+  @Test
+  public void callGetRegistrationTokenByTeleTanWithFake() throws Exception {
+    log.info("process callGetRegistrationTokenByTeleTanWithFake() ");
+    RegistrationTokenRequest request = new RegistrationTokenRequest(TestUtils.TEST_TELE_TAN, null, RegistrationTokenKeyType.TELETAN);
+    mockMvc.perform(post(TestUtils.PREFIX_API_VERSION + TestUtils.REGISTRATION_TOKEN_URI)
+      .secure(true)
+      .contentType(MediaType.APPLICATION_JSON)
+      .header("cwa-fake", "1")
+      .content(TestUtils.getAsJsonFormat(request)))
+      .andExpect(status().isCreated());
+    verify(tanRepository, never()).findByTanHash(any());
+    verify(tanRepository, never()).findViewByTanHash(any());
   }
 
   /**
@@ -567,9 +606,8 @@ public void callGetRegistrationTokenByTeleTan() throws Exception {
     log.info("process callGetRegistrationTokenByTeleTan() ");
     appSessionrepository.deleteAll();
     RegistrationTokenRequest request = new RegistrationTokenRequest(TestUtils.TEST_TELE_TAN, null, RegistrationTokenKeyType.TELETAN);
-    given(this.tanService.verifyTeleTan(TestUtils.TEST_TELE_TAN)).willReturn(true);
     given(this.tanService.isTeleTanValid(TestUtils.TEST_TELE_TAN)).willReturn(true);
-    given(this.tanService.getEntityByTan(TestUtils.TEST_TELE_TAN)).willReturn(Optional.of(TestUtils.getTeleTanTestData()));
+    given(this.tanService.findRedeemableTeleTan(TestUtils.TEST_TELE_TAN)).willReturn(Optional.of(TestUtils.getTeleTanTestData()));
 
     MvcResult result = mockMvc.perform(post(TestUtils.PREFIX_API_VERSION + TestUtils.REGISTRATION_TOKEN_URI)
       .secure(true)
@@ -578,6 +616,9 @@ public void callGetRegistrationTokenByTeleTan() throws Exception {
       .andReturn();
     mockMvc.perform(asyncDispatch(result))
       .andExpect(status().isCreated());
+    verify(tanRepository, never()).findByTanHash(any());
+    verify(tanRepository, never()).findViewByTanHash(any());
+    verify(tanService, never()).getEntityByTan(any());
 
     long count = appSessionrepository.count();
     log.info("Got {} verification entries from db repository.", count);
@@ -601,8 +642,8 @@ public void callGetRegistrationTokenByUnknownTeleTan() throws Exception {
     log.info("process callGetRegistrationTokenByUnknownTeleTan() ");
     appSessionrepository.deleteAll();
     RegistrationTokenRequest request = new RegistrationTokenRequest(TestUtils.TEST_TELE_TAN, null, RegistrationTokenKeyType.TELETAN);
-    given(this.tanService.verifyTeleTan(TestUtils.TEST_TELE_TAN)).willReturn(false);
-    given(this.tanService.getEntityByTan(TestUtils.TEST_TELE_TAN)).willReturn(Optional.empty());
+    given(this.tanService.isTeleTanValid(TestUtils.TEST_TELE_TAN)).willReturn(true);
+    given(this.tanService.findRedeemableTeleTan(TestUtils.TEST_TELE_TAN)).willReturn(Optional.empty());
 
     mockMvc.perform(post(TestUtils.PREFIX_API_VERSION + TestUtils.REGISTRATION_TOKEN_URI)
       .secure(true)
@@ -666,15 +707,20 @@ public void callGetRegistrationTokenByAlreadyExistForTeleTan() throws Exception
     appSessionTestData.setTeleTanHash(TestUtils.TEST_TELE_TAN_HASH);
     appSessionrepository.save(appSessionTestData);
 
-    given(this.tanService.verifyTeleTan(TestUtils.TEST_TELE_TAN)).willReturn(true);
+    VerificationTan teleTan = TestUtils.getTeleTanTestData();
+    teleTan.setTanHash(TestUtils.TEST_TELE_TAN_HASH);
+    given(this.tanService.isTeleTanValid(TestUtils.TEST_TELE_TAN)).willReturn(true);
+    given(this.tanService.findRedeemableTeleTan(TestUtils.TEST_TELE_TAN)).willReturn(Optional.of(teleTan));
 
     RegistrationTokenRequest request = new RegistrationTokenRequest(TestUtils.TEST_TELE_TAN, null, RegistrationTokenKeyType.TELETAN);
 
-    mockMvc.perform(post(TestUtils.PREFIX_API_VERSION + TestUtils.REGISTRATION_TOKEN_URI)
+    MvcResult result = mockMvc.perform(post(TestUtils.PREFIX_API_VERSION + TestUtils.REGISTRATION_TOKEN_URI)
       .secure(true)
       .header("cwa-fake", "0")
       .contentType(MediaType.APPLICATION_JSON)
       .content(TestUtils.getAsJsonFormat(request)))
+      .andReturn();
+    mockMvc.perform(asyncDispatch(result))
       .andExpect(status().isBadRequest());
   }
 
@@ -746,13 +792,10 @@ public void callGetTestStateWithFake() throws Exception {
 
     given(this.testResultServerService.result(new HashedGuid(TestUtils.TEST_GUI_HASH))).willReturn(TestUtils.TEST_LAB_POSITIVE_RESULT);
 
-    MvcResult mvcResult = mockMvc.perform(post(TestUtils.PREFIX_API_VERSION + "/testresult").contentType(MediaType.APPLICATION_JSON)
+    mockMvc.perform(post(TestUtils.PREFIX_API_VERSION + "/testresult").contentType(MediaType.APPLICATION_JSON)
       .secure(true)
       .header("cwa-fake", "1")
       .content(TestUtils.getAsJsonFormat(new RegistrationToken(TestUtils.TEST_REG_TOK, TOKEN_PADDING))))
-      .andReturn();
-
-    mockMvc.perform(asyncDispatch(mvcResult))
       .andExpect(status().isOk())
       .andExpect(jsonPath("$.labId").doesNotExist())
       .andExpect(jsonPath("$.sc").exists());
@@ -823,4 +866,23 @@ public void callGetRegistrationTokenByLargeRequest() throws Exception {
       .andExpect(status().isNotAcceptable());
   }
 
+  /**
+   * Writes the fake responses immediately instead of after the fake delay, so a fake request is completed when
+   * {@link MockMvc#perform} returns.
+   */
+  @TestConfiguration
+  static class ImmediateFakeResponses {
+
+    @Bean
+    @Primary
+    FakeRequestService immediateFakeRequestService(FakeDelayService fakeDelayService,
+                                                   FakeResponseTemplates fakeResponseTemplates) {
+      ScheduledExecutorService scheduledExecutor = mock(ScheduledExecutorService.class);
+      when(scheduledExecutor.schedule(any(Runnable.class), anyLong(), any(TimeUnit.class))).thenAnswer(invocation -> {
+        invocation.getArgument(0, Runnable.class).run();
+        return null;
+      });
+      return new FakeRequestService(fakeDelayService, fakeResponseTemplates, scheduledExecutor);
+    }
+  }
 }
@@ -0,0 +1,70 @@
+/*-
+ * ---license-start
+ * Corona-Warn-App / cwa-verification
+ * ---
+ * Copyright (C) 2020 - 2022 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package app.coronawarn.verification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+
+import app.coronawarn.verification.model.Tan;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * This is the test class for the internal routes served over HTTP/2 (h2c).
+ */
+@SpringBootTest(webEnvironment = RANDOM_PORT, properties = {
+  "server.http2.enabled=true",
+  "management.server.port=0"
+})
+@ActiveProfiles({"internal", "local"})
+public class VerificationApplicationInternalHttp2Test {
+
+  @LocalServerPort
+  private int port;
+
+  private final HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_2).build();
+
+  @Test
+  public void verifyUnknownTanOverHttp2() throws Exception {
+    URI uri = URI.create("http://localhost:" + port + TestUtils.PREFIX_API_VERSION + "/tan/verify");
+    // the first request upgrades the connection to h2c, the following requests are multiplexed on it
+    HttpResponse<Void> upgrade = httpClient.send(HttpRequest.newBuilder(uri).GET().build(),
+      HttpResponse.BodyHandlers.discarding());
+    assertThat(upgrade.version()).isEqualTo(HttpClient.Version.HTTP_2);
+
+    for (int i = 0; i < 3; i++) {
+      HttpResponse<Void> response = httpClient.send(HttpRequest.newBuilder(uri)
+        .header("Content-Type", "application/json")
+        .POST(HttpRequest.BodyPublishers.ofString(TestUtils.getAsJsonFormat(new Tan(UUID.randomUUID().toString()))))
+        .build(), HttpResponse.BodyHandlers.discarding());
+      assertThat(response.version()).isEqualTo(HttpClient.Version.HTTP_2);
+      assertThat(response.statusCode()).isEqualTo(404);
+    }
+  }
+}
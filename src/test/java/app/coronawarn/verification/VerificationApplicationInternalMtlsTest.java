@@ -0,0 +1,155 @@
+/*-
+ * ---license-start
+ * Corona-Warn-App / cwa-verification
+ * ---
+ * Copyright (C) 2020 - 2022 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package app.coronawarn.verification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+
+import app.coronawarn.verification.model.Tan;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.UUID;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSessionContext;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.util.FileSystemUtils;
+
+/**
+ * This is the test class for the internal routes served over mutual TLS with certificates generated by a test CA.
+ */
+@SpringBootTest(webEnvironment = RANDOM_PORT, properties = {
+  "management.server.port=0",
+  "server.ssl.enabled=true",
+  "server.ssl.client-auth=need",
+  "server.ssl.key-alias=server",
+  "server.ssl.key-store-type=PKCS12",
+  "server.ssl.key-store-password=" + MtlsTestCertificates.PASSWORD,
+  "server.ssl.trust-store-type=PKCS12",
+  "server.ssl.trust-store-password=" + MtlsTestCertificates.PASSWORD
+})
+@ActiveProfiles({"internal", "local"})
+public class VerificationApplicationInternalMtlsTest {
+
+  private static Path directory;
+  private static MtlsTestCertificates certificates;
+  private static Path clientKeyStore;
+  private static Path unknownClientKeyStore;
+
+  @LocalServerPort
+  private int port;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @DynamicPropertySource
+  static void sslProperties(DynamicPropertyRegistry registry) throws Exception {
+    directory = Files.createTempDirectory("mtls");
+    certificates = new MtlsTestCertificates(directory);
+    Path serverKeyStore = certificates.createKeyStore("server", "SAN=dns:localhost,ip:127.0.0.1");
+    clientKeyStore = certificates.createKeyStore("client");
+    unknownClientKeyStore = certificates.createKeyStore("unknown-client");
+    String thumbprint = MtlsTestCertificates.thumbprint(clientKeyStore, "client");
+    registry.add("server.ssl.key-store", serverKeyStore::toString);
+    registry.add("server.ssl.trust-store", certificates.getTrustStore()::toString);
+    registry.add("allowed-client-certificates", () -> "00, " + thumbprint.toUpperCase(Locale.ROOT));
+  }
+
+  @AfterAll
+  static void deleteCertificates() throws Exception {
+    FileSystemUtils.deleteRecursively(directory);
+  }
+
+  @Test
+  public void countsConnectionsAndReusedConnectionsOfResumedSessions() throws Exception {
+    SSLContext sslContext = certificates.sslContext(clientKeyStore);
+    double connections = connections();
+    double reused = requests("reused");
+
+    HttpClient firstClient = httpClient(sslContext);
+    assertThat(verifyUnknownTan(firstClient)).isEqualTo(HttpStatus.NOT_FOUND.value());
+    assertThat(verifyUnknownTan(firstClient)).isEqualTo(HttpStatus.NOT_FOUND.value());
+    assertThat(connections()).isEqualTo(connections + 1);
+    assertThat(requests("reused")).isEqualTo(reused + 1);
+
+    // the server issued a ticket on the first connection, the second client resumes it on a new connection
+    SSLSessionContext sessions = sslContext.getClientSessionContext();
+    assertThat(Collections.list(sessions.getIds())).isNotEmpty();
+    long creationTime = sessions.getSession(sessions.getIds().nextElement()).getCreationTime();
+    Thread.sleep(10);
+    assertThat(verifyUnknownTan(httpClient(sslContext))).isEqualTo(HttpStatus.NOT_FOUND.value());
+    assertThat(connections()).isEqualTo(connections + 2);
+    assertThat(requests("reused")).isEqualTo(reused + 1);
+    // a resumed session keeps the creation time of the session of its full handshake
+    assertThat(Collections.list(sessions.getIds()))
+      .allSatisfy(id -> assertThat(sessions.getSession(id).getCreationTime()).isEqualTo(creationTime));
+  }
+
+  @Test
+  public void acceptsAllowedClientCertificate() throws Exception {
+    HttpClient httpClient = httpClient(certificates.sslContext(clientKeyStore));
+    // the second request uses the cached thumbprint of the certificate
+    assertThat(verifyUnknownTan(httpClient)).isEqualTo(HttpStatus.NOT_FOUND.value());
+    assertThat(verifyUnknownTan(httpClient)).isEqualTo(HttpStatus.NOT_FOUND.value());
+  }
+
+  @Test
+  public void rejectsClientCertificateWithUnknownThumbprint() throws Exception {
+    // the certificate is signed by the trusted CA, so only its thumbprint is rejected
+    HttpClient httpClient = httpClient(certificates.sslContext(unknownClientKeyStore));
+    assertThat(verifyUnknownTan(httpClient)).isIn(HttpStatus.UNAUTHORIZED.value(), HttpStatus.FORBIDDEN.value());
+    assertThat(verifyUnknownTan(httpClient)).isIn(HttpStatus.UNAUTHORIZED.value(), HttpStatus.FORBIDDEN.value());
+  }
+
+  private HttpClient httpClient(SSLContext sslContext) {
+    return HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).sslContext(sslContext).build();
+  }
+
+  private int verifyUnknownTan(HttpClient httpClient) throws Exception {
+    URI uri = URI.create("https://localhost:" + port + TestUtils.PREFIX_API_VERSION + "/tan/verify");
+    return httpClient.send(HttpRequest.newBuilder(uri)
+      .header("Content-Type", "application/json")
+      .POST(HttpRequest.BodyPublishers.ofString(TestUtils.getAsJsonFormat(new Tan(UUID.randomUUID().toString()))))
+      .build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+  }
+
+  private double connections() {
+    return meterRegistry.get("verification.tls.connections").counter().count();
+  }
+
+  private double requests(String connection) {
+    return meterRegistry.get("verification.tls.requests").tag("connection", connection).counter().count();
+  }
+}
@@ -24,7 +24,11 @@
 import static app.coronawarn.verification.TestUtils.TEST_GUI_HASH;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
@@ -33,10 +37,13 @@
 
 import app.coronawarn.verification.controller.InternalTanController;
 import app.coronawarn.verification.domain.VerificationTan;
+import app.coronawarn.verification.domain.VerificationTanView;
 import app.coronawarn.verification.model.AuthorizationRole;
 import app.coronawarn.verification.model.HashedGuid;
 import app.coronawarn.verification.model.RegistrationToken;
 import app.coronawarn.verification.model.Tan;
+import app.coronawarn.verification.model.TanList;
+import app.coronawarn.verification.model.TanVerification;
 import app.coronawarn.verification.model.TeleTanType;
 import app.coronawarn.verification.repository.VerificationAppSessionRepository;
 import app.coronawarn.verification.service.JwtService;
@@ -46,6 +53,7 @@
 import java.security.KeyPairGenerator;
 import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Assertions;
@@ -101,7 +109,8 @@ public void callGenerateTeleTAN() throws Exception {
     KeyPair kp = keyGenerator.genKeyPair();
     String jwtString = TestUtils.getJwtTestData(3000, kp.getPrivate(), AuthorizationRole.AUTH_C19_HEALTHAUTHORITY);
 
-    given(this.tanService.isTeleTanRateLimitNotExceeded()).willReturn(Boolean.TRUE);
+    given(this.tanService.generateVerificationTeleTanWithinRateLimit(any()))
+      .willReturn(Optional.of(TestUtils.TEST_TELE_TAN));
     given(this.jwtService.isAuthorized(any(), any())).willReturn(Boolean.TRUE);
     given(this.jwtService.getPublicKey()).willReturn(kp.getPublic());
     when(this.jwtService.validateToken(jwtString, kp.getPublic(), Collections.emptyList())).thenCallRealMethod();
@@ -130,6 +139,118 @@ public void callGenerateTeleTanUnauthorized() throws Exception {
       .andExpect(status().isUnauthorized());
   }
 
+  /**
+   * Test the generation of multiple tele Tans with one request.
+   *
+   * @throws Exception if the test cannot be performed.
+   */
+  @Test
+  public void callGenerateTeleTansInBulk() throws Exception {
+    given(this.jwtService.isAuthorized(any(), any())).willReturn(Boolean.TRUE);
+    given(this.tanService.generateVerificationTeleTansWithinRateLimit(3, TeleTanType.EVENT))
+      .willReturn(Optional.of(List.of("R3ZNUEV9JA", "PPCAH6MGCJ", "9ZT6AZCQJZ")));
+
+    mockMvc.perform(post(TestUtils.PREFIX_API_VERSION + InternalTanController.TELE_TAN_BULK_ROUTE)
+        .param("count", "3")
+        .header(JwtService.HEADER_NAME_AUTHORIZATION, "")
+        .header(InternalTanController.TELE_TAN_TYPE_HEADER, TeleTanType.EVENT.toString())
+        .secure(true))
+      .andExpect(status().isCreated())
+      .andExpect(jsonPath("$.teleTans.length()", is(3)))
+      .andExpect(jsonPath("$.teleTans[0].value", is("R3ZNUEV9JA")));
+
+    verify(this.jwtService).isAuthorized(any(), eq(List.of(AuthorizationRole.AUTH_C19_HOTLINE_EVENT)));
+  }
+
+  /**
+   * Test the generation of multiple tele Tans, when the count or the rate limit is exceeded.
+   *
+   * @throws Exception if the test cannot be performed.
+   */
+  @Test
+  public void callGenerateTeleTansInBulkShouldBeLimited() throws Exception {
+    given(this.jwtService.isAuthorized(any(), any())).willReturn(Boolean.TRUE);
+    given(this.tanService.generateVerificationTeleTansWithinRateLimit(anyInt(), any())).willReturn(Optional.empty());
+
+    mockMvc.perform(post(TestUtils.PREFIX_API_VERSION + InternalTanController.TELE_TAN_BULK_ROUTE)
+        .param("count", "0")
+        .header(JwtService.HEADER_NAME_AUTHORIZATION, "").secure(true))
+      .andExpect(status().isBadRequest());
+
+    mockMvc.perform(post(TestUtils.PREFIX_API_VERSION + InternalTanController.TELE_TAN_BULK_ROUTE)
+        .param("count", "101")
+        .header(JwtService.HEADER_NAME_AUTHORIZATION, "").secure(true))
+      .andExpect(status().isBadRequest());
+
+    mockMvc.perform(post(TestUtils.PREFIX_API_VERSION + InternalTanController.TELE_TAN_BULK_ROUTE)
+        .param("count", "50")
+        .header(JwtService.HEADER_NAME_AUTHORIZATION, "").secure(true))
+      .andExpect(status().isTooManyRequests());
+
+    verify(this.tanService).generateVerificationTeleTansWithinRateLimit(anyInt(), any());
+  }
+
+  /**
+   * Test that the count of the generation of multiple tele Tans is not validated before the authorization.
+   *
+   * @throws Exception if the test cannot be performed.
+   */
+  @Test
+  public void callGenerateTeleTansInBulkUnauthorized() throws Exception {
+    given(this.jwtService.isAuthorized(any(), any())).willReturn(Boolean.FALSE);
+
+    mockMvc.perform(post(TestUtils.PREFIX_API_VERSION + InternalTanController.TELE_TAN_BULK_ROUTE)
+        .param("count", "0")
+        .header(JwtService.HEADER_NAME_AUTHORIZATION, "").secure(true))
+      .andExpect(status().isUnauthorized());
+
+    verify(this.tanService, never()).generateVerificationTeleTansWithinRateLimit(anyInt(), any());
+  }
+
+  /**
+   * Test the verification of multiple Tans with one request.
+   *
+   * @throws Exception if the test cannot be performed.
+   */
+  @Test
+  public void callVerifyTansInBulk() throws Exception {
+    String validTan = TestUtils.TEST_TAN;
+    String invalidTan = "9b0a1a4b-5f5e-4b5b-8d4c-0e2f0b4c7a1e";
+    given(this.tanService.verifyAndDeleteTans(List.of(validTan, invalidTan))).willReturn(List.of(
+      new TanVerification(validTan, true, TeleTanType.EVENT),
+      new TanVerification(invalidTan, false, null)));
+
+    mockMvc.perform(post(TestUtils.PREFIX_API_VERSION + InternalTanController.TAN_VERIFY_BULK_ROUTE).secure(true)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(TestUtils.getAsJsonFormat(new TanList(List.of(new Tan(validTan), new Tan(invalidTan))))))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.verifications[0].tan", is(validTan)))
+      .andExpect(jsonPath("$.verifications[0].valid", is(true)))
+      .andExpect(jsonPath("$.verifications[0].teleTanType", is(TeleTanType.EVENT.toString())))
+      .andExpect(jsonPath("$.verifications[1].valid", is(false)))
+      .andExpect(jsonPath("$.verifications[1].teleTanType").doesNotExist());
+  }
+
+  /**
+   * Test the verification of multiple Tans with an invalid request.
+   *
+   * @throws Exception if the test cannot be performed.
+   */
+  @Test
+  public void callVerifyTansInBulkWithInvalidRequest() throws Exception {
+    mockMvc.perform(post(TestUtils.PREFIX_API_VERSION + InternalTanController.TAN_VERIFY_BULK_ROUTE).secure(true)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(TestUtils.getAsJsonFormat(new TanList(List.of()))))
+      .andExpect(status().isBadRequest());
+
+    mockMvc.perform(post(TestUtils.PREFIX_API_VERSION + InternalTanController.TAN_VERIFY_BULK_ROUTE).secure(true)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(TestUtils.getAsJsonFormat(new TanList(List.of(new Tan("invalid"))))))
+      .andExpect(status().isBadRequest());
+
+    verify(this.tanService, never()).verifyAndDeleteTans(any());
+  }
+
   /**
    * Test verifyTAN.
    *
@@ -139,10 +260,12 @@ public void callGenerateTeleTanUnauthorized() throws Exception {
   public void callVerifyTAN() throws Exception {
     log.info("process callVerifyTAN()");
 
-    given(this.tanService.getEntityByTan(TestUtils.TEST_TAN)).willReturn(Optional.of(TestUtils.getVerificationTANTestData()));
+    given(this.tanService.getTanViewByTan(TestUtils.TEST_TAN))
+      .willReturn(Optional.of(TestUtils.getTanView(TestUtils.getVerificationTANTestData())));
+    given(this.tanService.deleteTanById(any())).willReturn(true);
 
-    Optional<VerificationTan> verificationTan = this.tanService.getEntityByTan(TestUtils.TEST_TAN);
-    Assertions.assertFalse(verificationTan.map(VerificationTan::isRedeemed).orElse(true));
+    Optional<VerificationTanView> verificationTan = this.tanService.getTanViewByTan(TestUtils.TEST_TAN);
+    Assertions.assertFalse(verificationTan.map(VerificationTanView::isRedeemed).orElse(true));
 
     mockMvc.perform(post(TestUtils.PREFIX_API_VERSION + TestUtils.TAN_VERIFICATION_URI)
       .contentType(MediaType.APPLICATION_JSON)
@@ -161,7 +284,7 @@ public void callVerifyTAN() throws Exception {
   public void callVerifyTANByVerificationTANIsEmpty() throws Exception {
     log.info("process callVerifyTANByVerificationTANIsEmpty()");
 
-    // without mock tanService.getEntityByTan so this method will return empty entity
+    // without mock tanService.getTanViewByTan so this method will return empty entity
     mockMvc.perform(post(TestUtils.PREFIX_API_VERSION + TestUtils.TAN_VERIFICATION_URI)
       .secure(true)
       .contentType(MediaType.APPLICATION_JSON)
@@ -196,7 +319,7 @@ public void callVerifyTANByExpiredTimeFrom() throws Exception {
     VerificationTan cvtan = TestUtils.getVerificationTANTestData();
     // setValidFrom later 2 days then now
     cvtan.setValidFrom(LocalDateTime.now().plusDays(2));
-    given(this.tanService.getEntityByTan(TestUtils.TEST_TAN)).willReturn(Optional.of(cvtan));
+    given(this.tanService.getTanViewByTan(TestUtils.TEST_TAN)).willReturn(Optional.of(TestUtils.getTanView(cvtan)));
 
     mockMvc.perform(post(TestUtils.PREFIX_API_VERSION + TestUtils.TAN_VERIFICATION_URI).contentType(MediaType.APPLICATION_JSON)
       .secure(true)
@@ -216,7 +339,7 @@ public void callVerifyTANByExpiredTimeUntil() throws Exception {
     VerificationTan cvtan = TestUtils.getVerificationTANTestData();
     // setValidUntil earlier 2 days then now
     cvtan.setValidUntil(LocalDateTime.now().minusDays(2));
-    given(this.tanService.getEntityByTan(TestUtils.TEST_TAN)).willReturn(Optional.of(cvtan));
+    given(this.tanService.getTanViewByTan(TestUtils.TEST_TAN)).willReturn(Optional.of(TestUtils.getTanView(cvtan)));
 
     mockMvc.perform(post(TestUtils.PREFIX_API_VERSION + TestUtils.TAN_VERIFICATION_URI).contentType(MediaType.APPLICATION_JSON)
       .secure(true)
@@ -237,7 +360,7 @@ public void callVerifyTANByIsRedeemed() throws Exception {
     VerificationTan cvtan = TestUtils.getVerificationTANTestData();
     // tan is redeemed
     cvtan.setRedeemed(true);
-    given(this.tanService.getEntityByTan(TestUtils.TEST_TAN)).willReturn(Optional.of(cvtan));
+    given(this.tanService.getTanViewByTan(TestUtils.TEST_TAN)).willReturn(Optional.of(TestUtils.getTanView(cvtan)));
 
     mockMvc.perform(post(TestUtils.PREFIX_API_VERSION + TestUtils.TAN_VERIFICATION_URI).contentType(MediaType.APPLICATION_JSON)
       .secure(true)
@@ -271,12 +394,13 @@ public void callGetRegistrationTokenByGuid() throws Exception {
   @Test
   public void shouldReturn429StatusCodeIfRateLimitIsExceeded() throws Exception {
     given(this.jwtService.isAuthorized(any(), any())).willReturn(Boolean.TRUE);
-    given(this.tanService.isTeleTanRateLimitNotExceeded()).willReturn(Boolean.TRUE);
+    given(this.tanService.generateVerificationTeleTanWithinRateLimit(any()))
+      .willReturn(Optional.of(TestUtils.TEST_TELE_TAN));
 
     mockMvc.perform(post(TestUtils.PREFIX_API_VERSION + "/tan/teletan").header(JwtService.HEADER_NAME_AUTHORIZATION, "").secure(true))
       .andExpect(status().isCreated());
 
-    given(this.tanService.isTeleTanRateLimitNotExceeded()).willReturn(Boolean.FALSE);
+    given(this.tanService.generateVerificationTeleTanWithinRateLimit(any())).willReturn(Optional.empty());
 
     mockMvc.perform(post(TestUtils.PREFIX_API_VERSION + "/tan/teletan").header(JwtService.HEADER_NAME_AUTHORIZATION, "").secure(true))
       .andExpect(status().isTooManyRequests());
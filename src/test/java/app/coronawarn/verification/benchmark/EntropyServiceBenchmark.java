@@ -0,0 +1,97 @@
+/*-
+ * ---license-start
+ * Corona-Warn-App / cwa-verification
+ * ---
+ * Copyright (C) 2020 - 2022 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package app.coronawarn.verification.benchmark;
+
+import app.coronawarn.verification.config.VerificationApplicationConfig;
+import app.coronawarn.verification.service.EntropyService;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * This class benchmarks the throughput of the {@link EntropyService} for the supported algorithms against
+ * {@link UUID#randomUUID()} and {@link RandomStringUtils}, with several threads drawing random values concurrently.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class EntropyServiceBenchmark {
+
+  private static final int PADDING_LENGTH = 45;
+
+  @Param({"DRBG", "SHA1PRNG", "NativePRNGNonBlocking"})
+  private String algorithm;
+
+  private EntropyService entropyService;
+
+  @Setup
+  public void setup() {
+    VerificationApplicationConfig config = new VerificationApplicationConfig();
+    config.getEntropy().setAlgorithm(algorithm);
+    entropyService = new EntropyService(config);
+  }
+
+  @Benchmark
+  public UUID randomUuid() {
+    return entropyService.randomUuid();
+  }
+
+  @Benchmark
+  public UUID randomUuidWithJdk() {
+    return UUID.randomUUID();
+  }
+
+  @Benchmark
+  public String randomAlphanumeric() {
+    return entropyService.randomAlphanumeric(PADDING_LENGTH);
+  }
+
+  @Benchmark
+  public String randomAlphanumericWithRandomStringUtils() {
+    return RandomStringUtils.randomAlphanumeric(PADDING_LENGTH);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+      .include(EntropyServiceBenchmark.class.getSimpleName())
+      .build()).run();
+  }
+}
@@ -0,0 +1,106 @@
+/*-
+ * ---license-start
+ * Corona-Warn-App / cwa-verification
+ * ---
+ * Copyright (C) 2020 - 2022 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package app.coronawarn.verification.benchmark;
+
+import app.coronawarn.verification.config.VerificationApplicationConfig;
+import app.coronawarn.verification.model.LabTestResult;
+import app.coronawarn.verification.model.Tan;
+import app.coronawarn.verification.model.TestResult;
+import app.coronawarn.verification.service.EntropyService;
+import app.coronawarn.verification.service.FakeResponseTemplates;
+import app.coronawarn.verification.service.PaddingProvider;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * This class benchmarks the pre-serialized fake responses of the {@link FakeResponseTemplates} against building the
+ * models and serializing them with Jackson, as it was done for fake requests before.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FakeResponseBenchmark {
+
+  private ObjectMapper objectMapper;
+  private EntropyService entropyService;
+  private PaddingProvider paddingProvider;
+  private FakeResponseTemplates fakeResponseTemplates;
+
+  @Setup
+  public void setup() {
+    VerificationApplicationConfig config = new VerificationApplicationConfig();
+    objectMapper = new ObjectMapper();
+    entropyService = new EntropyService(config);
+    paddingProvider = new PaddingProvider(config, entropyService);
+    fakeResponseTemplates = new FakeResponseTemplates(entropyService, paddingProvider);
+  }
+
+  @Benchmark
+  public byte[] tanTemplate() {
+    return fakeResponseTemplates.tan();
+  }
+
+  @Benchmark
+  public byte[] tanWithJackson() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(new Tan(entropyService.randomUuid().toString(),
+      paddingProvider.getPadding(FakeResponseTemplates.TAN_PADDING_LENGTH)));
+  }
+
+  @Benchmark
+  public byte[] testResultTemplate() {
+    return fakeResponseTemplates.testResult();
+  }
+
+  @Benchmark
+  public byte[] testResultWithJackson() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(new TestResult(LabTestResult.POSITIVE.getTestResult(),
+      LocalDateTime.now().toEpochSecond(ZoneOffset.UTC), null,
+      paddingProvider.getPadding(FakeResponseTemplates.TEST_RESULT_PADDING_LENGTH)));
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+      .include(FakeResponseBenchmark.class.getSimpleName())
+      .addProfiler(GCProfiler.class)
+      .build()).run();
+  }
+}
@@ -0,0 +1,94 @@
+/*-
+ * ---license-start
+ * Corona-Warn-App / cwa-verification
+ * ---
+ * Copyright (C) 2020 - 2022 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package app.coronawarn.verification.benchmark;
+
+import app.coronawarn.verification.service.HashingService;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class benchmarks the {@link HashingService} against the previous {@link DigestUtils} based implementation.
+ * It is run with the GC profiler, so the "gc.alloc.rate.norm" column shows the bytes allocated per call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HashingServiceBenchmark {
+
+  private static final String REGISTRATION_TOKEN = "1ea6ce8a-9740-41ea-bb37-0242ac130002";
+  private static final String TELE_TAN = "FE9A5MAK6";
+
+  private HashingService hashingService;
+
+  @Setup
+  public void setup() {
+    ((Logger) LoggerFactory.getLogger(HashingService.class)).setLevel(Level.WARN);
+    hashingService = new HashingService();
+  }
+
+  @Benchmark
+  public String hash() {
+    return hashingService.hash(REGISTRATION_TOKEN);
+  }
+
+  @Benchmark
+  public String hashWithDigestUtils() {
+    return DigestUtils.sha256Hex(REGISTRATION_TOKEN);
+  }
+
+  @Benchmark
+  public String checkDigit() {
+    return hashingService.getCheckDigit(TELE_TAN);
+  }
+
+  @Benchmark
+  public String checkDigitWithDigestUtils() {
+    return DigestUtils.sha256Hex(TELE_TAN).substring(0, 1).toUpperCase().replace("0", "G").replace("1", "H");
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+      .include(HashingServiceBenchmark.class.getSimpleName())
+      .addProfiler(GCProfiler.class)
+      .build()).run();
+  }
+}
@@ -0,0 +1,129 @@
+/*-
+ * ---license-start
+ * Corona-Warn-App / cwa-verification
+ * ---
+ * Copyright (C) 2020 - 2022 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package app.coronawarn.verification.benchmark;
+
+import app.coronawarn.verification.config.JacksonConfig;
+import app.coronawarn.verification.model.HashedGuid;
+import app.coronawarn.verification.model.RegistrationToken;
+import app.coronawarn.verification.model.RegistrationTokenRequest;
+import app.coronawarn.verification.model.Tan;
+import app.coronawarn.verification.model.TestResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * This class benchmarks the parse and serialize throughput of the request and response models with the default
+ * object mapper and with the object mapper tuned by the {@link JacksonConfig}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelJsonBenchmark {
+
+  private static final byte[] REGISTRATION_TOKEN_REQUEST = ("{\"key\":\"" + "a".repeat(64)
+    + "\",\"keyDob\":\"x" + "b".repeat(63) + "\",\"keyType\":\"GUID\"}").getBytes(StandardCharsets.UTF_8);
+  private static final byte[] REGISTRATION_TOKEN =
+    "{\"registrationToken\":\"1ea6ce8a-9740-41ea-bb37-0242ac130002\",\"responsePadding\":\"a\"}"
+      .getBytes(StandardCharsets.UTF_8);
+  private static final byte[] HASHED_GUID = ("{\"id\":\"" + "c".repeat(64) + "\"}").getBytes(StandardCharsets.UTF_8);
+
+  @Param({"default", "tuned"})
+  private String mapper;
+
+  private ObjectReader registrationTokenRequestReader;
+  private ObjectReader registrationTokenReader;
+  private ObjectReader hashedGuidReader;
+  private ObjectWriter tanWriter;
+  private ObjectWriter testResultWriter;
+
+  private final Tan tan = new Tan("1ea6ce8a-9740-41ea-bb37-0242ac130002", "a".repeat(15));
+  private final TestResult testResult = new TestResult(2, 1600000000L, "l".repeat(64), "a".repeat(45));
+
+  @Setup
+  public void setup() {
+    Jackson2ObjectMapperBuilder builder = new Jackson2ObjectMapperBuilder();
+    if ("tuned".equals(mapper)) {
+      builder.modulesToInstall(new BlackbirdModule());
+      JacksonConfig.disableUnusedFeatures(builder);
+    }
+    ObjectMapper objectMapper = builder.build();
+    registrationTokenRequestReader = objectMapper.readerFor(RegistrationTokenRequest.class);
+    registrationTokenReader = objectMapper.readerFor(RegistrationToken.class);
+    hashedGuidReader = objectMapper.readerFor(HashedGuid.class);
+    tanWriter = objectMapper.writerFor(Tan.class);
+    testResultWriter = objectMapper.writerFor(TestResult.class);
+  }
+
+  @Benchmark
+  public RegistrationTokenRequest parseRegistrationTokenRequest() throws IOException {
+    return registrationTokenRequestReader.readValue(REGISTRATION_TOKEN_REQUEST);
+  }
+
+  @Benchmark
+  public RegistrationToken parseRegistrationToken() throws IOException {
+    return registrationTokenReader.readValue(REGISTRATION_TOKEN);
+  }
+
+  @Benchmark
+  public HashedGuid parseHashedGuid() throws IOException {
+    return hashedGuidReader.readValue(HASHED_GUID);
+  }
+
+  @Benchmark
+  public byte[] serializeTan() throws IOException {
+    return tanWriter.writeValueAsBytes(tan);
+  }
+
+  @Benchmark
+  public byte[] serializeTestResult() throws IOException {
+    return testResultWriter.writeValueAsBytes(testResult);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+      .include(ModelJsonBenchmark.class.getSimpleName())
+      .build()).run();
+  }
+}
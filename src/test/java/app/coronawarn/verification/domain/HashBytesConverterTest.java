@@ -0,0 +1,64 @@
+/*-
+ * ---license-start
+ * Corona-Warn-App / cwa-verification
+ * ---
+ * Copyright (C) 2020 - 2022 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package app.coronawarn.verification.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+public class HashBytesConverterTest {
+
+  private static final String HASH = "523463041ef9ffa2950d8450feb34c88bc8692c40c9cf3c99dcdf75e270229e2";
+  private static final String DOB_HASH = "x23463041ef9ffa2950d8450feb34c88bc8692c40c9cf3c99dcdf75e270229e2";
+
+  HashBytesConverter converter = new HashBytesConverter();
+
+  @Test
+  public void hexHashRoundTrip() {
+    byte[] bytes = converter.convertToDatabaseColumn(HASH);
+    assertThat(bytes).hasSize(32);
+    assertThat(bytes[0]).isEqualTo((byte) 0x52);
+    assertThat(bytes[31]).isEqualTo((byte) 0xe2);
+    assertThat(converter.convertToEntityAttribute(bytes)).isEqualTo(HASH);
+  }
+
+  @Test
+  public void dobHashRoundTrip() {
+    byte[] bytes = converter.convertToDatabaseColumn(DOB_HASH);
+    assertThat(bytes).hasSize(33);
+    assertThat(bytes[0]).isEqualTo((byte) 0x01);
+    assertThat(bytes[1]).isEqualTo((byte) 0x02);
+    assertThat(converter.convertToEntityAttribute(bytes)).isEqualTo(DOB_HASH);
+  }
+
+  @Test
+  public void dobHashDiffersFromHexHash() {
+    String hexHash = "0" + DOB_HASH.substring(1);
+    assertThat(converter.convertToDatabaseColumn(hexHash)).isNotEqualTo(converter.convertToDatabaseColumn(DOB_HASH));
+    assertThat(converter.convertToEntityAttribute(converter.convertToDatabaseColumn(hexHash))).isEqualTo(hexHash);
+  }
+
+  @Test
+  public void nullRoundTrip() {
+    assertThat(converter.convertToDatabaseColumn(null)).isNull();
+    assertThat(converter.convertToEntityAttribute(null)).isNull();
+  }
+}
@@ -0,0 +1,137 @@
+/*-
+ * ---license-start
+ * Corona-Warn-App / cwa-verification
+ * ---
+ * Copyright (C) 2020 - 2022 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package app.coronawarn.verification.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import app.coronawarn.verification.VerificationApplication;
+import app.coronawarn.verification.domain.VerificationAppSession;
+import app.coronawarn.verification.domain.VerificationAppSessionView;
+import app.coronawarn.verification.domain.VerificationTan;
+import app.coronawarn.verification.model.AppSessionSourceOfTrust;
+import app.coronawarn.verification.model.TanSourceOfTrust;
+import app.coronawarn.verification.model.TanType;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+/**
+ * The schema of the binary hash columns is only built by the PostgreSQL change sets, so Hibernate creates it here.
+ */
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles({"binary-hash", "local"})
+@SpringBootTest(
+  properties = {
+    "spring.liquibase.enabled=false",
+    "spring.jpa.hibernate.ddl-auto=create-drop"
+  }
+)
+@ContextConfiguration(classes = VerificationApplication.class)
+public class BinaryHashRepositoryTest {
+
+  private static final String TEST_GUI_HASH = "f0e4c2f76c58916ec258f246851bea091d14d4247a2fc3e18694461b1816e13b";
+  private static final String TEST_GUI_DOB_HASH = "x0e4c2f76c58916ec258f246851bea091d14d4247a2fc3e18694461b1816e13b";
+  private static final String TEST_REG_TOK_HASH = "c775e7b757ede630cd0aa1113bd102661ab38829ca52a6422ab782862f268646";
+  private static final String TEST_HASHED_TAN = "16154ea91c2c59d6ef9d0e7f902a59283b1e7ff9111570d20139a4e6b1832876";
+  private static final String OTHER_HASHED_TAN = "26154ea91c2c59d6ef9d0e7f902a59283b1e7ff9111570d20139a4e6b1832876";
+
+  @Autowired
+  private VerificationAppSessionRepository appSessionRepository;
+
+  @Autowired
+  private VerificationTanRepository tanRepository;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @BeforeEach
+  public void before() {
+    appSessionRepository.deleteAll();
+    tanRepository.deleteAll();
+  }
+
+  @Test
+  public void tanHashIsStoredAsBytes() {
+    tanRepository.save(getVerificationTanTestData(TEST_HASHED_TAN));
+
+    byte[] stored = jdbcTemplate.queryForObject("SELECT tan_hash FROM tan", byte[].class);
+    assertThat(stored).hasSize(32);
+    Optional<VerificationTan> tan = tanRepository.findByTanHash(TEST_HASHED_TAN);
+    assertThat(tan).isPresent();
+    assertThat(tan.get().getTanHash()).isEqualTo(TEST_HASHED_TAN);
+    assertThat(tanRepository.existsByTanHash(TEST_HASHED_TAN)).isTrue();
+    assertThat(tanRepository.existsByTanHash(OTHER_HASHED_TAN)).isFalse();
+    assertThat(tanRepository.findViewByTanHash(TEST_HASHED_TAN)).isPresent();
+    assertThat(tanRepository.findExistingTanHashes(List.of(TEST_HASHED_TAN, OTHER_HASHED_TAN)))
+      .containsExactly(TEST_HASHED_TAN);
+  }
+
+  @Test
+  public void appSessionHashesAreStoredAsBytes() {
+    appSessionRepository.save(getAppSessionTestData());
+
+    byte[] stored = jdbcTemplate.queryForObject("SELECT hashed_guid_dob FROM app_session", byte[].class);
+    assertThat(stored).hasSize(33);
+    Optional<VerificationAppSessionView> view = appSessionRepository.findViewByRegistrationTokenHash(TEST_REG_TOK_HASH);
+    assertThat(view).isPresent();
+    assertThat(view.get().getHashedGuid()).isEqualTo(TEST_GUI_HASH);
+    assertThat(view.get().getHashedGuidDob()).isEqualTo(TEST_GUI_DOB_HASH);
+    assertThat(view.get().getRegistrationTokenHash()).isEqualTo(TEST_REG_TOK_HASH);
+    assertThat(appSessionRepository.existsByHashedGuidInOrHashedGuidDobIn(
+      List.of(TEST_GUI_DOB_HASH), List.of(TEST_GUI_DOB_HASH))).isTrue();
+    assertThat(appSessionRepository.existsByHashedGuidInOrHashedGuidDobIn(
+      List.of(TEST_HASHED_TAN), List.of(TEST_HASHED_TAN))).isFalse();
+  }
+
+  private VerificationAppSession getAppSessionTestData() {
+    VerificationAppSession cv = new VerificationAppSession();
+    cv.setHashedGuid(TEST_GUI_HASH);
+    cv.setHashedGuidDob(TEST_GUI_DOB_HASH);
+    cv.setCreatedAt(LocalDateTime.now());
+    cv.setUpdatedAt(LocalDateTime.now());
+    cv.setTanCounter(0);
+    cv.setSourceOfTrust(AppSessionSourceOfTrust.HASHED_GUID);
+    cv.setRegistrationTokenHash(TEST_REG_TOK_HASH);
+    return cv;
+  }
+
+  private VerificationTan getVerificationTanTestData(String tanHash) {
+    VerificationTan cvtan = new VerificationTan();
+    cvtan.setCreatedAt(LocalDateTime.now());
+    cvtan.setUpdatedAt(LocalDateTime.now());
+    cvtan.setRedeemed(false);
+    cvtan.setSourceOfTrust(TanSourceOfTrust.CONNECTED_LAB);
+    cvtan.setTanHash(tanHash);
+    cvtan.setType(TanType.TAN);
+    cvtan.setValidFrom(LocalDateTime.now().minusDays(5));
+    cvtan.setValidUntil(LocalDateTime.now().plusDays(7));
+    return cvtan;
+  }
+}
@@ -0,0 +1,123 @@
+/*-
+ * ---license-start
+ * Corona-Warn-App / cwa-verification
+ * ---
+ * Copyright (C) 2020 - 2022 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package app.coronawarn.verification.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import app.coronawarn.verification.config.VerificationApplicationConfig;
+import app.coronawarn.verification.domain.VerificationAppSessionView;
+import app.coronawarn.verification.model.AppSessionSourceOfTrust;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+
+public class AppSessionViewCacheTest {
+
+  private static final LocalDateTime CREATED_AT = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+  MeterRegistry meterRegistry = new SimpleMeterRegistry();
+  InMemoryVerificationCache verificationCache = new InMemoryVerificationCache(10, meterRegistry);
+  AtomicInteger loads = new AtomicInteger();
+
+  private AppSessionViewCache cache(boolean enabled) {
+    VerificationApplicationConfig config = new VerificationApplicationConfig();
+    config.getCache().getAppsession().setEnabled(enabled);
+    return new AppSessionViewCache(config, verificationCache, meterRegistry);
+  }
+
+  private Supplier<Optional<VerificationAppSessionView>> loader(String registrationTokenHash, int tanCounter) {
+    return () -> {
+      loads.incrementAndGet();
+      return Optional.of(new AppSessionViewCache.CachedAppSessionView(CREATED_AT, "guid", null,
+        registrationTokenHash, tanCounter, AppSessionSourceOfTrust.HASHED_GUID, null, tanCounter));
+    };
+  }
+
+  private double requests(String result) {
+    return meterRegistry.get(CacheRegion.REQUESTS_METRIC).tag("region", AppSessionViewCache.REGION)
+      .tag("result", result).counter().count();
+  }
+
+  @Test
+  public void cachesPresentViews() {
+    AppSessionViewCache cache = cache(true);
+    assertThat(cache.get("hash", loader("hash", 0))).hasValueSatisfying(
+      view -> assertThat(view.getRegistrationTokenHash()).isEqualTo("hash"));
+    assertThat(cache.get("hash", loader("hash", 0))).isPresent();
+    assertThat(loads).hasValue(1);
+    assertThat(requests("hit")).isEqualTo(1);
+    assertThat(requests("miss")).isEqualTo(1);
+  }
+
+  @Test
+  public void doesNotCacheAbsentViews() {
+    AppSessionViewCache cache = cache(true);
+    assertThat(cache.get("hash", Optional::empty)).isEmpty();
+    assertThat(verificationCache.size()).isZero();
+  }
+
+  @Test
+  public void invalidationReloadsView() {
+    AppSessionViewCache cache = cache(true);
+    cache.get("hash", loader("hash", 0));
+    cache.invalidate("hash", 1);
+    assertThat(cache.get("hash", loader("hash", 1))).hasValueSatisfying(
+      view -> assertThat(view.getTanCounter()).isEqualTo(1));
+    assertThat(cache.get("hash", loader("hash", 1))).isPresent();
+    assertThat(loads).hasValue(2);
+  }
+
+  @Test
+  public void viewLoadedDuringInvalidationIsNotCached() {
+    AppSessionViewCache cache = cache(true);
+    cache.get("hash", () -> {
+      Optional<VerificationAppSessionView> view = loader("hash", 0).get();
+      cache.invalidate("hash", 1);
+      return view;
+    });
+    assertThat(verificationCache.get(AppSessionViewCache.REGION, "hash",
+      AppSessionViewCache.CachedAppSessionView.class)).isEmpty();
+  }
+
+  @Test
+  public void invalidatesAllViews() {
+    AppSessionViewCache cache = cache(true);
+    cache.get("a", loader("a", 0));
+    cache.get("b", loader("b", 0));
+    verificationCache.put(TestResultCache.REGION, "guid", "result", 0, Duration.ofMinutes(1));
+    cache.invalidateAll();
+    assertThat(verificationCache.size()).isEqualTo(1);
+  }
+
+  @Test
+  public void disabledCacheAlwaysLoads() {
+    AppSessionViewCache cache = cache(false);
+    cache.get("hash", loader("hash", 0));
+    cache.get("hash", loader("hash", 0));
+    assertThat(loads).hasValue(2);
+    assertThat(verificationCache.size()).isZero();
+  }
+}
@@ -0,0 +1,134 @@
+/*-
+ * ---license-start
+ * Corona-Warn-App / cwa-verification
+ * ---
+ * Copyright (C) 2020 - 2022 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package app.coronawarn.verification.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import app.coronawarn.verification.VerificationApplication;
+import app.coronawarn.verification.domain.HashBytesConverter;
+import app.coronawarn.verification.domain.VerificationAppSession;
+import app.coronawarn.verification.domain.VerificationTan;
+import app.coronawarn.verification.model.AppSessionSourceOfTrust;
+import app.coronawarn.verification.model.TanSourceOfTrust;
+import app.coronawarn.verification.model.TanType;
+import app.coronawarn.verification.repository.VerificationAppSessionRepository;
+import app.coronawarn.verification.repository.VerificationTanRepository;
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles({"binary-hash-backfill", "local"})
+@SpringBootTest(
+  properties = {
+    "binary-hash.backfill.batch-size=2",
+    "binary-hash.backfill.fixed-delay=3600000"
+  }
+)
+@ContextConfiguration(classes = VerificationApplication.class)
+public class BinaryHashBackfillServiceTest {
+
+  private static final String TEST_GUI_HASH = "f0e4c2f76c58916ec258f246851bea091d14d4247a2fc3e18694461b1816e13b";
+  private static final String TEST_GUI_DOB_HASH = "x0e4c2f76c58916ec258f246851bea091d14d4247a2fc3e18694461b1816e13b";
+  private static final String TEST_REG_TOK_HASH = "c775e7b757ede630cd0aa1113bd102661ab38829ca52a6422ab782862f268646";
+
+  private final HashBytesConverter converter = new HashBytesConverter();
+
+  @Autowired
+  private BinaryHashBackfillService backfillService;
+
+  @Autowired
+  private VerificationAppSessionRepository appSessionRepository;
+
+  @Autowired
+  private VerificationTanRepository tanRepository;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @BeforeEach
+  public void before() {
+    appSessionRepository.deleteAll();
+    tanRepository.deleteAll();
+  }
+
+  @Test
+  public void backfillConvertsAllRowsInBatches() {
+    for (int i = 0; i < 5; i++) {
+      tanRepository.save(getVerificationTanTestData(i));
+    }
+    appSessionRepository.save(getAppSessionTestData());
+
+    backfillService.backfill();
+    assertThat(countTansToConvert()).isEqualTo(3);
+    backfillService.backfill();
+    backfillService.backfill();
+    assertThat(countTansToConvert()).isZero();
+
+    for (VerificationTan tan : tanRepository.findAll()) {
+      byte[] stored = jdbcTemplate.queryForObject("SELECT tan_hash_bin FROM tan WHERE id = ?", byte[].class,
+        tan.getId());
+      assertThat(converter.convertToEntityAttribute(stored)).isEqualTo(tan.getTanHash());
+    }
+    assertThat(converter.convertToEntityAttribute(jdbcTemplate.queryForObject(
+      "SELECT hashed_guid_dob_bin FROM app_session", byte[].class))).isEqualTo(TEST_GUI_DOB_HASH);
+    assertThat(converter.convertToEntityAttribute(jdbcTemplate.queryForObject(
+      "SELECT registration_token_hash_bin FROM app_session", byte[].class))).isEqualTo(TEST_REG_TOK_HASH);
+    assertThat(jdbcTemplate.queryForObject(
+      "SELECT tele_tan_hash_bin FROM app_session", byte[].class)).isNull();
+  }
+
+  private int countTansToConvert() {
+    return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tan WHERE tan_hash_bin IS NULL", Integer.class);
+  }
+
+  private VerificationAppSession getAppSessionTestData() {
+    VerificationAppSession cv = new VerificationAppSession();
+    cv.setHashedGuid(TEST_GUI_HASH);
+    cv.setHashedGuidDob(TEST_GUI_DOB_HASH);
+    cv.setCreatedAt(LocalDateTime.now());
+    cv.setUpdatedAt(LocalDateTime.now());
+    cv.setTanCounter(0);
+    cv.setSourceOfTrust(AppSessionSourceOfTrust.HASHED_GUID);
+    cv.setRegistrationTokenHash(TEST_REG_TOK_HASH);
+    return cv;
+  }
+
+  private VerificationTan getVerificationTanTestData(int index) {
+    VerificationTan cvtan = new VerificationTan();
+    cvtan.setCreatedAt(LocalDateTime.now());
+    cvtan.setUpdatedAt(LocalDateTime.now());
+    cvtan.setRedeemed(false);
+    cvtan.setSourceOfTrust(TanSourceOfTrust.CONNECTED_LAB);
+    cvtan.setTanHash(index + "6154ea91c2c59d6ef9d0e7f902a59283b1e7ff9111570d20139a4e6b1832876");
+    cvtan.setType(TanType.TAN);
+    cvtan.setValidFrom(LocalDateTime.now().minusDays(5));
+    cvtan.setValidUntil(LocalDateTime.now().plusDays(7));
+    return cvtan;
+  }
+}
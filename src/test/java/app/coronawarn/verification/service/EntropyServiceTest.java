@@ -0,0 +1,80 @@
+/*-
+ * ---license-start
+ * Corona-Warn-App / cwa-verification
+ * ---
+ * Copyright (C) 2020 - 2022 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package app.coronawarn.verification.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import app.coronawarn.verification.config.VerificationApplicationConfig;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+public class EntropyServiceTest {
+
+  VerificationApplicationConfig config = new VerificationApplicationConfig();
+  EntropyService entropyService = new EntropyService(config);
+
+  @Test
+  public void randomUuidIsVersion4() {
+    UUID first = entropyService.randomUuid();
+    UUID second = entropyService.randomUuid();
+    assertThat(first.version()).isEqualTo(4);
+    assertThat(first.variant()).isEqualTo(2);
+    assertThat(first).isNotEqualTo(second);
+    assertThat(UUID.fromString(first.toString())).isEqualTo(first);
+  }
+
+  @Test
+  public void randomAlphanumeric() {
+    assertThat(entropyService.randomAlphanumeric(0)).isEmpty();
+    assertThat(entropyService.randomAlphanumeric(45)).hasSize(45).matches("^[A-Za-z0-9]{45}$");
+    // exceeds the pool size, so the pool is refilled while generating
+    assertThat(entropyService.randomAlphanumeric(2000)).hasSize(2000).matches("^[A-Za-z0-9]+$");
+  }
+
+  @Test
+  public void nextIntStaysWithinBound() {
+    for (int i = 0; i < 1000; i++) {
+      assertThat(entropyService.nextInt(31)).isBetween(0, 30);
+      assertThat(entropyService.nextInt(100_000)).isBetween(0, 99_999);
+    }
+    assertThrows(IllegalArgumentException.class, () -> entropyService.nextInt(0));
+  }
+
+  @Test
+  public void nextBytesFillsArraysLargerThanThePool() {
+    byte[] bytes = new byte[2000];
+    entropyService.nextBytes(bytes);
+    int zeros = 0;
+    for (byte b : bytes) {
+      zeros += b == 0 ? 1 : 0;
+    }
+    assertThat(zeros).isLessThan(50);
+  }
+
+  @Test
+  public void unknownAlgorithmIsRejected() {
+    VerificationApplicationConfig unknown = new VerificationApplicationConfig();
+    unknown.getEntropy().setAlgorithm("UNKNOWN");
+    assertThrows(IllegalStateException.class, () -> new EntropyService(unknown));
+  }
+}
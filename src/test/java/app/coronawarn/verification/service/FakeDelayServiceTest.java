@@ -0,0 +1,81 @@
+/*-
+ * ---license-start
+ * Corona-Warn-App / cwa-verification
+ * ---
+ * Copyright (C) 2020 - 2022 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package app.coronawarn.verification.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import app.coronawarn.verification.config.VerificationApplicationConfig;
+import app.coronawarn.verification.controller.FakeDelayEndpoint;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+
+public class FakeDelayServiceTest {
+
+  MeterRegistry meterRegistry = new SimpleMeterRegistry();
+  FakeDelayService fakeDelayService = new FakeDelayService(config(), meterRegistry);
+
+  private static VerificationApplicationConfig config() {
+    VerificationApplicationConfig config = new VerificationApplicationConfig();
+    config.setInitialFakeDelayMilliseconds(10L);
+    config.setFakeDelayMovingAverageSamples(5L);
+    return config;
+  }
+
+  @Test
+  public void movingAveragesAreGauges() {
+    fakeDelayService.updateFakeTanRequestDelay(60);
+    assertThat(meterRegistry.get(FakeDelayService.AVERAGE_METRIC).tag("endpoint", "tan").gauge().value())
+      .isEqualTo(0.02);
+    assertThat(meterRegistry.get(FakeDelayService.AVERAGE_METRIC).tag("endpoint", "token").gauge().value())
+      .isEqualTo(0.01);
+  }
+
+  @Test
+  public void appliedDelaysAreRecorded() {
+    fakeDelayService.realDelayTan();
+    fakeDelayService.fakeDelayTan();
+    fakeDelayService.fakeDelayTan();
+    assertThat(meterRegistry.get(FakeDelayService.APPLIED_METRIC).tag("endpoint", "tan").tag("kind", "real")
+      .timer().count()).isEqualTo(1);
+    assertThat(meterRegistry.get(FakeDelayService.APPLIED_METRIC).tag("endpoint", "tan").tag("kind", "fake")
+      .timer().count()).isEqualTo(2);
+  }
+
+  @Test
+  public void latenessIsRecorded() {
+    AtomicBoolean executed = new AtomicBoolean();
+    fakeDelayService.withLateness(() -> executed.set(true), 0).run();
+    assertThat(executed).isTrue();
+    assertThat(meterRegistry.get(FakeDelayService.LATENESS_METRIC).timer().count()).isEqualTo(1);
+  }
+
+  @Test
+  public void endpointShowsDistributions() {
+    fakeDelayService.fakeDelayTest();
+    Map<String, Object> result = new FakeDelayEndpoint(fakeDelayService, meterRegistry).fakeDelay();
+    assertThat(result).containsKeys("movingAverageSeconds", "appliedDelays", "lateness", "requests");
+    assertThat(result.get("appliedDelays")).asList().hasSize(6);
+  }
+}
@@ -0,0 +1,72 @@
+/*-
+ * ---license-start
+ * Corona-Warn-App / cwa-verification
+ * ---
+ * Copyright (C) 2020 - 2022 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package app.coronawarn.verification.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import app.coronawarn.verification.config.VerificationApplicationConfig;
+import app.coronawarn.verification.model.LabTestResult;
+import app.coronawarn.verification.model.RegistrationToken;
+import app.coronawarn.verification.model.Tan;
+import app.coronawarn.verification.model.TestResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+public class FakeResponseTemplatesTest {
+
+  private static final String UUID_REGEX = "^[a-f0-9]{8}-[a-f0-9]{4}-4[a-f0-9]{3}-[89ab][a-f0-9]{3}-[a-f0-9]{12}$";
+
+  ObjectMapper objectMapper = new ObjectMapper();
+  VerificationApplicationConfig config = new VerificationApplicationConfig();
+  EntropyService entropyService = new EntropyService(config);
+  FakeResponseTemplates fakeResponseTemplates =
+    new FakeResponseTemplates(entropyService, new PaddingProvider(config, entropyService));
+
+  @Test
+  public void tanHasShapeOfSerializedModel() throws Exception {
+    byte[] json = fakeResponseTemplates.tan();
+    Tan tan = objectMapper.readValue(json, Tan.class);
+    assertThat(tan.getTan()).matches(UUID_REGEX);
+    assertThat(tan.getResponsePadding()).hasSize(FakeResponseTemplates.TAN_PADDING_LENGTH);
+    assertThat(json).isEqualTo(objectMapper.writeValueAsBytes(tan));
+  }
+
+  @Test
+  public void registrationTokenHasShapeOfSerializedModel() throws Exception {
+    byte[] json = fakeResponseTemplates.registrationToken();
+    RegistrationToken token = objectMapper.readValue(json, RegistrationToken.class);
+    assertThat(token.getRegistrationToken()).matches(UUID_REGEX);
+    assertThat(token.getResponsePadding()).hasSize(FakeResponseTemplates.REGISTRATION_TOKEN_PADDING_LENGTH);
+    assertThat(json).isEqualTo(objectMapper.writeValueAsBytes(token));
+  }
+
+  @Test
+  public void testResultHasShapeOfSerializedModel() throws Exception {
+    byte[] json = fakeResponseTemplates.testResult();
+    TestResult testResult = objectMapper.readValue(json, TestResult.class);
+    assertThat(testResult.getTestResult()).isEqualTo(LabTestResult.POSITIVE.getTestResult());
+    assertThat(testResult.getSc()).isPositive();
+    assertThat(testResult.getLabId()).isNull();
+    assertThat(testResult.getResponsePadding()).hasSize(FakeResponseTemplates.TEST_RESULT_PADDING_LENGTH);
+    assertThat(json).isEqualTo(objectMapper.writeValueAsBytes(testResult));
+  }
+}
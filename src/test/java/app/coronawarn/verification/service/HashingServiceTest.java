@@ -24,6 +24,7 @@
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import org.apache.commons.codec.digest.DigestUtils;
 import org.junit.jupiter.api.Test;
 
 public class HashingServiceTest {
@@ -60,4 +61,13 @@ public void getCheckDigit() {
     assertThat(hashingService.getCheckDigit("FE9A5MAK9").equals("H")).isTrue();
     assertThat(hashingService.getCheckDigit("FE9A5MAKW").equals("G")).isTrue();
   }
+
+  @Test
+  public void hashMatchesSha256Hex() {
+    String longInput = "a".repeat(300);
+    for (String input : new String[]{"", "FE9A5MAK6", "1ea6ce8a-9740-41ea-bb37-0242ac130002", "\u00e4\u00f6\u00fc", longInput,
+      "FE9A5MAK6"}) {
+      assertThat(hashingService.hash(input)).isEqualTo(DigestUtils.sha256Hex(input));
+    }
+  }
 }
@@ -0,0 +1,100 @@
+/*-
+ * ---license-start
+ * Corona-Warn-App / cwa-verification
+ * ---
+ * Copyright (C) 2020 - 2022 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package app.coronawarn.verification.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+public class InMemoryVerificationCacheTest {
+
+  private static final Duration TTL = Duration.ofMinutes(1);
+
+  MeterRegistry meterRegistry = new SimpleMeterRegistry();
+  AtomicLong nanoTime = new AtomicLong();
+  InMemoryVerificationCache cache = new InMemoryVerificationCache(2, meterRegistry, nanoTime::get);
+
+  private double evictions(String reason) {
+    return meterRegistry.get(InMemoryVerificationCache.EVICTIONS_METRIC).tag("reason", reason).counter().count();
+  }
+
+  @Test
+  public void returnsCachedValuesByRegion() {
+    cache.put("a", "key", "value", 0, TTL);
+    assertThat(cache.get("a", "key", String.class)).hasValue("value");
+    assertThat(cache.get("b", "key", String.class)).isEmpty();
+    assertThat(meterRegistry.get(InMemoryVerificationCache.SIZE_METRIC).gauge().value()).isEqualTo(1);
+  }
+
+  @Test
+  public void evictsEntriesAboveMaximumSize() {
+    cache.put("region", "a", "a", 0, TTL);
+    cache.put("region", "b", "b", 0, TTL);
+    cache.put("region", "c", "c", 0, TTL);
+    cache.cleanUp();
+    assertThat(cache.size()).isEqualTo(2);
+    assertThat(Stream.of("a", "b", "c").filter(key -> cache.get("region", key, String.class).isPresent()))
+      .hasSize(2);
+    assertThat(evictions("size")).isEqualTo(1);
+  }
+
+  @Test
+  public void expiresEntries() {
+    cache.put("region", "short", "value", 0, Duration.ofSeconds(1));
+    cache.put("region", "long", "value", 0, TTL);
+    nanoTime.addAndGet(Duration.ofSeconds(2).toNanos());
+    assertThat(cache.get("region", "short", String.class)).isEmpty();
+    assertThat(cache.get("region", "long", String.class)).isPresent();
+    nanoTime.addAndGet(TTL.toNanos());
+    cache.cleanUp();
+    assertThat(cache.size()).isZero();
+    assertThat(evictions("expired")).isEqualTo(2);
+  }
+
+  @Test
+  public void rejectsOlderVersions() {
+    cache.put("region", "key", "new", 2, TTL);
+    cache.put("region", "key", "old", 1, TTL);
+    assertThat(cache.get("region", "key", String.class)).hasValue("new");
+    cache.evict("region", "key", 3, TTL);
+    cache.put("region", "key", "new", 2, TTL);
+    assertThat(cache.get("region", "key", String.class)).isEmpty();
+    cache.put("region", "key", "newest", 3, TTL);
+    assertThat(cache.get("region", "key", String.class)).hasValue("newest");
+  }
+
+  @Test
+  public void evictsEntriesOfRegion() {
+    cache.put("a", "key", "value", 0, TTL);
+    cache.put("b", "key", "value", 0, TTL);
+    cache.evict("a", "key", 0, TTL);
+    assertThat(cache.get("a", "key", String.class)).isEmpty();
+    cache.put("a", "key", "value", 0, TTL);
+    cache.evictAll("b");
+    assertThat(cache.get("a", "key", String.class)).isPresent();
+    assertThat(cache.get("b", "key", String.class)).isEmpty();
+  }
+}
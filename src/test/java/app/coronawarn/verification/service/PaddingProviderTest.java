@@ -0,0 +1,50 @@
+/*-
+ * ---license-start
+ * Corona-Warn-App / cwa-verification
+ * ---
+ * Copyright (C) 2020 - 2022 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package app.coronawarn.verification.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import app.coronawarn.verification.config.VerificationApplicationConfig;
+import org.junit.jupiter.api.Test;
+
+public class PaddingProviderTest {
+
+  VerificationApplicationConfig config = new VerificationApplicationConfig();
+  PaddingProvider paddingProvider = new PaddingProvider(config, new EntropyService(config));
+
+  @Test
+  public void paddingHasRequestedLength() {
+    assertThat(paddingProvider.getPadding(0)).isEmpty();
+    assertThat(paddingProvider.getPadding(1)).hasSize(1).matches("^[A-Za-z0-9]$");
+    assertThat(paddingProvider.getPadding(45)).hasSize(45).matches("^[A-Za-z0-9]{45}$");
+    assertThat(paddingProvider.getPadding(config.getPadding().getBufferLength())).hasSize(4096);
+    assertThat(paddingProvider.getPadding(5000)).hasSize(5000).matches("^[A-Za-z0-9]+$");
+  }
+
+  @Test
+  public void refreshReplacesBuffer() {
+    int length = config.getPadding().getBufferLength();
+    String before = paddingProvider.getPadding(length);
+    paddingProvider.refresh();
+    assertThat(paddingProvider.getPadding(length)).hasSize(length).isNotEqualTo(before);
+  }
+}
@@ -0,0 +1,219 @@
+/*-
+ * ---license-start
+ * Corona-Warn-App / cwa-verification
+ * ---
+ * Copyright (C) 2020 - 2022 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+package app.coronawarn.verification.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import app.coronawarn.verification.config.VerificationApplicationConfig;
+import app.coronawarn.verification.domain.VerificationAppSessionView;
+import app.coronawarn.verification.model.AppSessionSourceOfTrust;
+import app.coronawarn.verification.model.TeleTanType;
+import app.coronawarn.verification.model.TestResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import redis.embedded.RedisServer;
+
+/**
+ * This is the test class for the redis cache, two caches connected to an embedded redis server act as two instances of
+ * the verification server.
+ */
+public class RedisVerificationCacheTest {
+
+  private static final String KEY_PREFIX = "cwa-verification-test:";
+
+  private static RedisServer redisServer;
+  private static LettuceConnectionFactory connectionFactory;
+
+  MeterRegistry meterRegistry = new SimpleMeterRegistry();
+  ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+  VerificationApplicationConfig config = new VerificationApplicationConfig();
+  RedisVerificationCache instance1;
+  RedisVerificationCache instance2;
+
+  @BeforeAll
+  public static void startRedis() throws IOException {
+    int port;
+    try (ServerSocket socket = new ServerSocket(0)) {
+      port = socket.getLocalPort();
+    }
+    redisServer = new RedisServer(port);
+    redisServer.start();
+    connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", port));
+    connectionFactory.afterPropertiesSet();
+  }
+
+  @AfterAll
+  public static void stopRedis() throws IOException {
+    connectionFactory.destroy();
+    redisServer.stop();
+  }
+
+  @BeforeEach
+  public void setUp() {
+    connectionFactory.getConnection().serverCommands().flushAll();
+    instance1 = new RedisVerificationCache(
+      new StringRedisTemplate(connectionFactory), objectMapper, KEY_PREFIX, meterRegistry);
+    instance2 = new RedisVerificationCache(
+      new StringRedisTemplate(connectionFactory), objectMapper, KEY_PREFIX, meterRegistry);
+    config.getCache().getAppsession().setEnabled(true);
+    config.getCache().getTestresult().setEnabled(true);
+  }
+
+  @Test
+  public void sharesAppSessionsBetweenInstances() {
+    AppSessionViewCache cache1 = new AppSessionViewCache(config, instance1, meterRegistry);
+    AppSessionViewCache cache2 = new AppSessionViewCache(config, instance2, meterRegistry);
+    AtomicInteger loads = new AtomicInteger();
+    VerificationAppSessionView view = new AppSessionViewCache.CachedAppSessionView(
+      LocalDateTime.of(2026, 1, 1, 12, 0), null, null, "hash", 0, AppSessionSourceOfTrust.TELETAN, TeleTanType.EVENT,
+      0);
+
+    cache1.get("hash", () -> {
+      loads.incrementAndGet();
+      return Optional.of(view);
+    });
+    assertThat(cache2.get("hash", () -> {
+      loads.incrementAndGet();
+      return Optional.empty();
+    })).hasValue(view);
+    assertThat(loads).hasValue(1);
+
+    cache2.invalidate("hash", 1);
+    assertThat(instance1.get(AppSessionViewCache.REGION, "hash", AppSessionViewCache.CachedAppSessionView.class))
+      .isEmpty();
+  }
+
+  @Test
+  public void sharesTestResultsBetweenInstances() {
+    TestResultCache cache1 = new TestResultCache(config, instance1, meterRegistry);
+    TestResultCache cache2 = new TestResultCache(config, instance2, meterRegistry);
+
+    TestResult loaded = cache1.get("guid", () -> new TestResult(2, 1000, "lab", null));
+    loaded.setResponsePadding("padding");
+
+    assertThat(cache2.get("guid", () -> new TestResult(0, 0, null, null)))
+      .isEqualTo(new TestResult(2, 1000, "lab", null));
+
+    cache1.invalidateAll();
+    assertThat(cache2.get("guid", () -> new TestResult(0, 0, null, null)).getTestResult()).isZero();
+  }
+
+  @Test
+  public void rejectsViewLoadedByOtherInstanceBeforeModification() {
+    AppSessionViewCache cache1 = new AppSessionViewCache(config, instance1, meterRegistry);
+    AppSessionViewCache cache2 = new AppSessionViewCache(config, instance2, meterRegistry);
+
+    // instance 1 loads version 0, while instance 2 modifies the app session to version 1 and evicts it
+    cache1.get("hash", () -> {
+      cache2.invalidate("hash", 1);
+      return Optional.of(view(0));
+    });
+    assertThat(instance2.get(AppSessionViewCache.REGION, "hash", AppSessionViewCache.CachedAppSessionView.class))
+      .isEmpty();
+
+    assertThat(cache2.get("hash", () -> Optional.of(view(1)))).hasValueSatisfying(
+      view -> assertThat(view.getTanCounter()).isEqualTo(1));
+    assertThat(cache1.get("hash", Optional::empty)).hasValueSatisfying(
+      view -> assertThat(view.getTanCounter()).isEqualTo(1));
+  }
+
+  @Test
+  public void keepsNewestVersionOfConcurrentPuts() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> puts = new ArrayList<>();
+      for (int version = 0; version < 200; version++) {
+        RedisVerificationCache instance = version % 2 == 0 ? instance1 : instance2;
+        int value = version;
+        puts.add(executor.submit(() -> instance.put("region", "key", value, value, Duration.ofMinutes(1))));
+      }
+      for (Future<?> put : puts) {
+        put.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertThat(instance1.get("region", "key", Integer.class)).hasValue(199);
+    instance2.evict("region", "key", 199, Duration.ofMinutes(1));
+    instance1.put("region", "key", 198, 198, Duration.ofMinutes(1));
+    assertThat(instance1.get("region", "key", Integer.class)).isEmpty();
+  }
+
+  private static VerificationAppSessionView view(int tanCounter) {
+    return new AppSessionViewCache.CachedAppSessionView(LocalDateTime.of(2026, 1, 1, 12, 0), null, null, "hash",
+      tanCounter, AppSessionSourceOfTrust.TELETAN, TeleTanType.EVENT, tanCounter);
+  }
+
+  @Test
+  public void expiresEntries() throws InterruptedException {
+    instance1.put("region", "key", "value", 0, Duration.ofMillis(50));
+    assertThat(instance2.get("region", "key", String.class)).hasValue("value");
+    Thread.sleep(100);
+    assertThat(instance2.get("region", "key", String.class)).isEmpty();
+  }
+
+  @Test
+  public void evictsAllEntriesOfRegion() {
+    for (int i = 0; i < 1200; i++) {
+      instance1.put("a", "key" + i, i, 0, Duration.ofMinutes(1));
+    }
+    instance1.put("b", "key", 1, 0, Duration.ofMinutes(1));
+    instance2.evictAll("a");
+    assertThat(instance1.get("a", "key0", Integer.class)).isEmpty();
+    assertThat(instance1.get("a", "key1199", Integer.class)).isEmpty();
+    assertThat(instance1.get("b", "key", Integer.class)).hasValue(1);
+  }
+
+  @Test
+  public void failingLookupIsMiss() {
+    LettuceConnectionFactory unreachable = new LettuceConnectionFactory(
+      new RedisStandaloneConfiguration("localhost", 1));
+    unreachable.afterPropertiesSet();
+    try {
+      RedisVerificationCache cache = new RedisVerificationCache(
+        new StringRedisTemplate(unreachable), objectMapper, KEY_PREFIX, meterRegistry);
+      assertThat(cache.get("region", "key", String.class)).isEmpty();
+      assertThat(meterRegistry.get(RedisVerificationCache.ERRORS_METRIC).tag("operation", "get").counter().count())
+        .isEqualTo(1);
+    } finally {
+      unreachable.destroy();
+    }
+  }
+}
@@ -27,15 +27,26 @@
 import app.coronawarn.verification.VerificationApplication;
 import app.coronawarn.verification.config.VerificationApplicationConfig;
 import app.coronawarn.verification.domain.VerificationTan;
+import app.coronawarn.verification.domain.VerificationTanView;
 import app.coronawarn.verification.model.TanSourceOfTrust;
 import app.coronawarn.verification.model.TanType;
+import app.coronawarn.verification.model.TanVerification;
 import app.coronawarn.verification.model.TeleTanType;
 import app.coronawarn.verification.repository.VerificationTanRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -85,6 +96,9 @@ public class TanServiceTest {
   @Autowired
   private VerificationApplicationConfig config;
 
+  @Autowired
+  private MeterRegistry meterRegistry;
+
   @BeforeEach
   public void setUp() {
     tanRepository.deleteAll();
@@ -134,6 +148,20 @@ public void saveTan() {
     Assertions.assertEquals(retunedTan, tan);
   }
 
+  /**
+   * Test saveTans.
+   */
+  @Test
+  public void saveTans() {
+    List<VerificationTan> tans = Stream.generate(UUID::randomUUID)
+      .limit(120)
+      .map(uuid -> tanService.generateVerificationTan(uuid.toString(), TanType.TAN, TEST_TAN_SOURCE_OF_TRUST, null))
+      .toList();
+    List<VerificationTan> savedTans = tanService.saveTans(tans);
+    assertThat(savedTans).hasSize(120).extracting(VerificationTan::getId).doesNotContainNull().doesNotHaveDuplicates();
+    assertThat(tanRepository.count()).isEqualTo(120);
+  }
+
   @Test
   public void getEntityByTan() {
     VerificationTan tan = new VerificationTan();
@@ -154,6 +182,18 @@ public void getEntityByTan() {
     Assertions.assertEquals(tan, tanFromDB.orElseThrow());
   }
 
+  @Test
+  public void getTanViewByTanAndDeleteTanById() {
+    String tan = tanService.generateVerificationTan(TEST_TAN_SOURCE_OF_TRUST, TeleTanType.TEST);
+    VerificationTanView tanView = tanService.getTanViewByTan(tan).orElseThrow();
+    assertTrue(tanView.canBeRedeemed(LocalDateTime.now()));
+    Assertions.assertEquals(TeleTanType.TEST, tanView.getTeleTanType());
+
+    assertTrue(tanService.deleteTanById(tanView.getId()));
+    assertFalse(tanService.deleteTanById(tanView.getId()));
+    assertFalse(tanService.getTanViewByTan(tan).isPresent());
+  }
+
   @Test
   public void checkTanAlreadyExist() {
     VerificationTan tan = new VerificationTan();
@@ -193,11 +233,16 @@ public void createTeleTan() {
   }
 
   @Test
-  public void verifyTeletan() {
+  public void findRedeemableTeleTan() {
     String teleTan = tanService.generateVerificationTeleTan(TeleTanType.TEST);
-    assertTrue(tanService.checkTanNotExist(TEST_TELE_TAN));
-    assertTrue(tanService.verifyTeleTan(teleTan));
-    assertFalse(tanService.verifyTeleTan("R3ZNUI0"));
+    Optional<VerificationTan> teleTanEntity = tanService.findRedeemableTeleTan(teleTan);
+    assertTrue(teleTanEntity.isPresent());
+    assertThat(teleTanEntity.get().getTeleTanType()).isEqualTo(TeleTanType.TEST);
+
+    teleTanEntity.get().setRedeemed(true);
+    tanService.saveTan(teleTanEntity.get());
+    assertTrue(tanService.findRedeemableTeleTan(teleTan).isEmpty());
+    assertTrue(tanService.findRedeemableTeleTan(tanService.createTeleTan()).isEmpty());
   }
 
   @Test
@@ -208,13 +253,13 @@ public void verifyAlreadyRedeemedTeleTan() {
       teleTanFromDB.setRedeemed(true);
     }
     tanService.saveTan(teleTanFromDB);
-    assertFalse(tanService.verifyTeleTan(teleTan));
+    assertTrue(tanService.findRedeemableTeleTan(teleTan).isEmpty());
   }
 
   @Test
   public void verifyUnknownTeleTan() {
     String teleTan = tanService.createTeleTan();
-    assertFalse(tanService.verifyTeleTan(teleTan));
+    assertTrue(tanService.findRedeemableTeleTan(teleTan).isEmpty());
   }
 
   @Test
@@ -227,7 +272,7 @@ public void verifyExpiredTeleTan() {
       teleTanFromDB.setValidUntil(validFrom.plusHours(1));
     }
     tanService.saveTan(teleTanFromDB);
-    assertFalse(tanService.verifyTeleTan(teleTan));
+    assertTrue(tanService.findRedeemableTeleTan(teleTan).isEmpty());
   }
 
   @Test
@@ -240,12 +285,32 @@ public void verifyExpiredEventTeleTan() {
       teleTanFromDB.setValidUntil(validFrom.plusDays(2));
     }
     tanService.saveTan(teleTanFromDB);
-    assertFalse(tanService.verifyTeleTan(teleTan));
+    assertTrue(tanService.findRedeemableTeleTan(teleTan).isEmpty());
+  }
+
+  @Test
+  public void rejectedTeleTansAreCounted() {
+    double syntax = rejectedCount("syntax");
+    double checksum = rejectedCount("checksum");
+    double unknown = rejectedCount("unknown");
+
+    assertFalse(tanService.isTeleTanValid("29ABCzAE4C"));
+    assertFalse(tanService.isTeleTanValid("29ABCZAE4E"));
+    assertTrue(tanService.findRedeemableTeleTan("29ABCZAE4C").isEmpty());
+
+    assertThat(rejectedCount("syntax")).isEqualTo(syntax + 1);
+    assertThat(rejectedCount("checksum")).isEqualTo(checksum + 1);
+    assertThat(rejectedCount("unknown")).isEqualTo(unknown + 1);
+  }
+
+  private double rejectedCount(String reason) {
+    return meterRegistry.get("verification.teletan.rejected").tag("reason", reason).counter().count();
   }
 
   @Test
   public void testTeleTANFormat() {
-    assertThat(tanService.isTeleTanValid("29ABCZAE4E")).isTrue();
+    assertThat(tanService.isTeleTanValid("29ABCZAE4C")).isTrue();
+    assertThat(tanService.isTeleTanValid("29ABCZAE4E")).isFalse();
     assertThat(tanService.isTeleTanValid("29ABCzAE4O")).isFalse();
     assertThat(tanService.isTeleTanValid("29zAABCE40")).isFalse();
     assertThat(tanService.isTeleTanValid("29zAABCE41")).isFalse();
@@ -258,6 +323,29 @@ public void testTeleTANFormat() {
     assertThat(tanService.isTeleTanValid("29zAABCL4-")).isFalse();
   }
 
+  @Test
+  public void verifyAndDeleteTans() {
+    String tan = tanService.generateVerificationTan(TEST_TAN_SOURCE_OF_TRUST, null);
+    String teleTan = tanService.generateVerificationTeleTan(TeleTanType.EVENT);
+    VerificationTan expired = tanService.generateVerificationTan(
+      "expired", TanType.TAN, TEST_TAN_SOURCE_OF_TRUST, null);
+    expired.setValidUntil(LocalDateTime.now().minusMinutes(1));
+    tanService.saveTan(expired);
+
+    List<TanVerification> verifications =
+      tanService.verifyAndDeleteTans(List.of(tan, "unknown", teleTan, "expired", tan));
+
+    assertThat(verifications).containsExactly(
+      new TanVerification(tan, true, null),
+      new TanVerification("unknown", false, null),
+      new TanVerification(teleTan, true, TeleTanType.EVENT),
+      new TanVerification("expired", false, null),
+      new TanVerification(tan, false, null));
+    assertThat(tanRepository.count()).isEqualTo(1);
+    assertThat(tanService.verifyAndDeleteTans(List.of(tan, teleTan)))
+      .extracting(TanVerification::isValid).containsExactly(false, false);
+  }
+
   @Test
   public void testRateLimitCheckForTeleTan() {
     config.getTan().getTele().getRateLimiting().setCount(TELE_TAN_RATE_LIMIT_COUNT);
@@ -274,6 +362,60 @@ public void testRateLimitCheckForTeleTan() {
     assertThat(tanService.isTeleTanRateLimitNotExceeded()).isFalse();
   }
 
+  @Test
+  public void testRateLimitCheckForRequestedTeleTans() {
+    config.getTan().getTele().getRateLimiting().setCount(TELE_TAN_RATE_LIMIT_COUNT);
+    config.getTan().getTele().getRateLimiting().setSeconds(TELE_TAN_RATE_LIMIT_SECONDS);
+
+    assertThat(tanService.isTeleTanRateLimitNotExceeded(TELE_TAN_RATE_LIMIT_COUNT)).isTrue();
+    assertThat(tanService.isTeleTanRateLimitNotExceeded(TELE_TAN_RATE_LIMIT_COUNT + 1)).isFalse();
+
+    tanService.generateVerificationTeleTans(TELE_TAN_RATE_LIMIT_COUNT - 2, TeleTanType.EVENT);
+
+    assertThat(tanService.isTeleTanRateLimitNotExceeded(2)).isTrue();
+    assertThat(tanService.isTeleTanRateLimitNotExceeded(3)).isFalse();
+  }
+
+  @Test
+  public void generateVerificationTeleTansWithinRateLimitIsAtomic() throws Exception {
+    config.getTan().getTele().getRateLimiting().setCount(TELE_TAN_RATE_LIMIT_COUNT);
+    config.getTan().getTele().getRateLimiting().setSeconds(TELE_TAN_RATE_LIMIT_SECONDS);
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<Optional<List<String>>>> results = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        results.add(executor.submit(() ->
+          tanService.generateVerificationTeleTansWithinRateLimit(3, TeleTanType.EVENT)));
+      }
+      int generated = 0;
+      for (Future<Optional<List<String>>> result : results) {
+        generated += result.get(10, TimeUnit.SECONDS).map(List::size).orElse(0);
+      }
+      // each request counts the teleTANs of the previous ones, so only three requests fit into the limit of ten
+      assertThat(generated).isEqualTo(9);
+      assertThat(tanRepository.count()).isEqualTo(9);
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(tanService.generateVerificationTeleTanWithinRateLimit(TeleTanType.TEST)).isPresent();
+    assertThat(tanService.generateVerificationTeleTanWithinRateLimit(TeleTanType.TEST)).isEmpty();
+  }
+
+  @Test
+  public void generateVerificationTeleTans() {
+    List<String> teleTans = tanService.generateVerificationTeleTans(120, TeleTanType.EVENT);
+
+    assertThat(teleTans).hasSize(120).doesNotHaveDuplicates().allMatch(tanService::isTeleTanValid);
+    assertThat(tanRepository.count()).isEqualTo(120);
+    teleTans.forEach(teleTan -> assertThat(tanService.getEntityByTan(teleTan)).hasValueSatisfying(tan -> {
+      assertThat(tan.getType()).isEqualTo(TanType.TELETAN);
+      assertThat(tan.getSourceOfTrust()).isEqualTo(TanSourceOfTrust.TELETAN);
+      assertThat(tan.getTeleTanType()).isEqualTo(TeleTanType.EVENT);
+    }));
+  }
+
   @Test
   public void testRateLimitShouldNotCountNonTeleTan() {
     config.getTan().getTele().getRateLimiting().setCount(TELE_TAN_RATE_LIMIT_COUNT);
@@ -0,0 +1,70 @@
+/*-
+ * ---license-start
+ * Corona-Warn-App / cwa-verification
+ * ---
+ * Copyright (C) 2020 - 2022 T-Systems International GmbH and all other contributors
+ * ---
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ---license-end
+ */
+
+
+package app.coronawarn.verification.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import app.coronawarn.verification.config.VerificationApplicationConfig;
+import org.junit.jupiter.api.Test;
+
+public class TeleTanCodecTest {
+
+  TeleTanCodec teleTanCodec = createCodec();
+
+  private static TeleTanCodec createCodec() {
+    VerificationApplicationConfig config = new VerificationApplicationConfig();
+    config.getTan().getTele().getValid().setLength(9);
+    return new TeleTanCodec(config, new HashingService(), new EntropyService(config));
+  }
+
+  @Test
+  public void syntaxValidation() {
+    assertThat(teleTanCodec.isSyntaxValid("29ABCZAE4C")).isTrue();
+    assertThat(teleTanCodec.isSyntaxValid("29ABCZAE4E")).isTrue();
+    assertThat(teleTanCodec.isSyntaxValid("29ABCzAE4C")).isFalse();
+    assertThat(teleTanCodec.isSyntaxValid("29ABCZAE41")).isFalse();
+    assertThat(teleTanCodec.isSyntaxValid("29ABCZAE4I")).isFalse();
+    assertThat(teleTanCodec.isSyntaxValid("29ABCZAE4Ö")).isFalse();
+    assertThat(teleTanCodec.isSyntaxValid("29ABCZAE4")).isFalse();
+    assertThat(teleTanCodec.isSyntaxValid("29ABCZAE4CC")).isFalse();
+    assertThat(teleTanCodec.isSyntaxValid(null)).isFalse();
+  }
+
+  @Test
+  public void checkDigitValidation() {
+    assertThat(teleTanCodec.isValid("29ABCZAE4C")).isTrue();
+    assertThat(teleTanCodec.isValid("FE9A5MAK6C")).isTrue();
+    assertThat(teleTanCodec.isValid("FE9A5MAK9H")).isTrue();
+    assertThat(teleTanCodec.isValid("FE9A5MAKWG")).isTrue();
+    assertThat(teleTanCodec.isValid("29ABCZAE4E")).isFalse();
+    assertThat(teleTanCodec.isValid("FE9A5MAK6D")).isFalse();
+  }
+
+  @Test
+  public void generatedTeleTansAreValid() {
+    for (int i = 0; i < 1000; i++) {
+      String teleTan = teleTanCodec.generate();
+      assertThat(teleTan).hasSize(10);
+      assertThat(teleTanCodec.isValid(teleTan)).isTrue();
+    }
+  }
+}
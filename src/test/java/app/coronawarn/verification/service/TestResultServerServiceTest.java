@@ -23,8 +23,11 @@
 import static org.assertj.core.api.Assertions.assertThat;
 
 import app.coronawarn.verification.client.TestResultServerClient;
+import app.coronawarn.verification.config.VerificationApplicationConfig;
 import app.coronawarn.verification.model.HashedGuid;
 import app.coronawarn.verification.model.TestResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.test.context.ActiveProfiles;
@@ -41,7 +44,9 @@ public class TestResultServerServiceTest {
  
   @BeforeEach
   public void setUp() {
-    testResultServerService = new TestResultServerService(new TestResultServerClientMock());
+    MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    testResultServerService = new TestResultServerService(new TestResultServerClientMock(), new TestResultCache(
+      new VerificationApplicationConfig(), new InMemoryVerificationCache(10, meterRegistry), meterRegistry));
   }
 
   /**